@@ -1,8 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.File; // Import the File class
 import java.io.IOException;
-import javax.imageio.ImageIO;
 
 public class AboutUs {
 
@@ -157,12 +155,9 @@ class PersonPanel extends JPanel {
         imageLabel.setMinimumSize(new Dimension(IMAGE_SIZE, IMAGE_SIZE));
         
         try {
-            // Create a File object from the provided path string
-            File imageFile = new File(imagePath);
-            // Read the image from the file
-            Image image = ImageIO.read(imageFile);
-            if (image != null) {
-                Image scaledImage = image.getScaledInstance(IMAGE_SIZE, IMAGE_SIZE, Image.SCALE_SMOOTH);
+            // Read the image through the shared cache so repeated photos are decoded once
+            Image scaledImage = ImageCache.getInstance().getScaled(imagePath, IMAGE_SIZE, IMAGE_SIZE);
+            if (scaledImage != null) {
                 imageLabel.setIcon(new ImageIcon(scaledImage));
             } else {
                  imageLabel.setText("Image not found at path");
@@ -0,0 +1,84 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A staff account. The password is only kept as a {@link PasswordHasher} hash.
+ */
+public class Account {
+
+    private final String username;
+    private final String fullName;
+    private final String contactNumber;
+    private final String email;
+    private final String passwordHash;
+    private final long createdAt;
+
+    public Account(String username, String fullName, String contactNumber, String email,
+                   String passwordHash, long createdAt) {
+        this.username = username;
+        this.fullName = fullName;
+        this.contactNumber = contactNumber;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.createdAt = createdAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    String getPasswordHash() {
+        return passwordHash;
+    }
+
+    /**
+     * Creation time in milliseconds since the epoch.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return A copy of this account with a different password hash.
+     */
+    Account withPasswordHash(String newHash) {
+        return new Account(username, fullName, contactNumber, email, newHash, createdAt);
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(192);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(username);
+        out.writeUTF(fullName);
+        out.writeUTF(contactNumber);
+        out.writeUTF(email);
+        out.writeUTF(passwordHash);
+        out.writeLong(createdAt);
+        return bytes.toByteArray();
+    }
+
+    static Account fromBytes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        return new Account(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readLong());
+    }
+
+    @Override
+    public String toString() {
+        return "Account " + username; // Never the hash
+    }
+}
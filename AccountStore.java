@@ -0,0 +1,230 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Durable storage for staff accounts.
+ *
+ * Accounts are few and small, so they all live in memory, keyed by lower-cased username
+ * and indexed by lower-cased email. Every change is appended to a {@link WriteAheadLog} and
+ * replayed on startup; the last record for a username wins, which is how password rehashes
+ * are stored.
+ *
+ * Usernames and emails are unique. Availability checks ({@link #isUsernameTaken},
+ * {@link #isEmailTaken}) ask a {@link BloomFilter} first, which answers "definitely free"
+ * for almost every new name without taking the store's lock; only possible hits go to
+ * the index.
+ */
+public class AccountStore {
+
+    /**
+     * Thrown when registering a username that is already in use (usernames ignore case).
+     */
+    public static class UsernameTakenException extends IOException {
+        public UsernameTakenException(String username) {
+            super("Username is already taken: " + username);
+        }
+    }
+
+    /**
+     * Thrown when registering an email address that another account already uses.
+     */
+    public static class EmailTakenException extends IOException {
+        public EmailTakenException(String email) {
+            super("Email is already registered: " + email);
+        }
+    }
+
+    private static final int INITIAL_FILTER_CAPACITY = 1024;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    private static AccountStore defaultStore;
+
+    private final WriteAheadLog log;
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final Map<String, Account> byEmail = new HashMap<>();
+
+    // Replaced, never cleared, when they fill up; volatile so lookups need no lock
+    private volatile BloomFilter usernameFilter;
+    private volatile BloomFilter emailFilter;
+
+    public AccountStore(File logFile) throws IOException {
+        WriteAheadLog.replay(logFile, payload -> {
+            try {
+                index(Account.fromBytes(payload));
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable account record: " + e.getMessage());
+            }
+        });
+        rebuildFilters();
+        this.log = new WriteAheadLog(logFile);
+    }
+
+    /**
+     * Returns the shared store in the PawTrack data directory.
+     */
+    public static synchronized AccountStore getDefault() throws IOException {
+        if (defaultStore == null) {
+            AccountStore store = new AccountStore(AppData.file("accounts.wal"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing account store: " + e.getMessage());
+                }
+            }));
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    /**
+     * @return The account with this username (any case), or null if there is none.
+     */
+    public synchronized Account find(String username) {
+        return accounts.get(key(username));
+    }
+
+    public synchronized boolean exists(String username) {
+        return accounts.containsKey(key(username));
+    }
+
+    /**
+     * Fast availability check for search-as-you-type style validation.
+     */
+    public boolean isUsernameTaken(String username) {
+        String key = key(username);
+        if (!usernameFilter.mightContain(key)) {
+            return false; // Definitely free; no lock taken
+        }
+        synchronized (this) {
+            return accounts.containsKey(key);
+        }
+    }
+
+    /**
+     * Fast availability check for an email address; see {@link #isUsernameTaken}.
+     */
+    public boolean isEmailTaken(String email) {
+        String key = key(email);
+        if (!emailFilter.mightContain(key)) {
+            return false;
+        }
+        synchronized (this) {
+            return byEmail.containsKey(key);
+        }
+    }
+
+    public synchronized int count() {
+        return accounts.size();
+    }
+
+    public synchronized List<Account> findAll() {
+        return new ArrayList<>(accounts.values());
+    }
+
+    /**
+     * Adds a new account. The username is reserved immediately, so two concurrent
+     * registrations of the same name cannot both succeed.
+     * @return A future completing with the account once it is durable on disk, or failing
+     *         with {@link UsernameTakenException} or {@link EmailTakenException}.
+     */
+    public CompletableFuture<Account> create(Account account) {
+        String key = key(account.getUsername());
+        synchronized (this) {
+            if (accounts.containsKey(key)) {
+                return CompletableFuture.failedFuture(new UsernameTakenException(account.getUsername()));
+            }
+            if (byEmail.containsKey(key(account.getEmail()))) {
+                return CompletableFuture.failedFuture(new EmailTakenException(account.getEmail()));
+            }
+            index(account);
+            addToFilters(account);
+        }
+        return append(account).whenComplete((stored, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    // Not durable, so release the name again. The filters keep it, which
+                    // only costs one extra index lookup until they are next rebuilt.
+                    if (accounts.remove(key, account)) {
+                        byEmail.remove(key(account.getEmail()), account);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces an existing account, e.g. after its password was rehashed.
+     */
+    public CompletableFuture<Account> update(Account account) {
+        synchronized (this) {
+            index(account);
+            addToFilters(account);
+        }
+        return append(account);
+    }
+
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private CompletableFuture<Account> append(Account account) {
+        byte[] payload;
+        try {
+            payload = account.toBytes();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return log.append(payload).thenApply(size -> account);
+    }
+
+    // --- Indexes ---
+
+    // Caller holds the lock (or is the constructor)
+    private void index(Account account) {
+        Account previous = accounts.put(key(account.getUsername()), account);
+        if (previous != null) {
+            byEmail.remove(key(previous.getEmail()), previous);
+        }
+        if (!account.getEmail().isEmpty()) {
+            byEmail.put(key(account.getEmail()), account);
+        }
+    }
+
+    private void addToFilters(Account account) {
+        if (usernameFilter.isFull() || emailFilter.isFull()) {
+            rebuildFilters(); // Covers this account too: it is already indexed
+            return;
+        }
+        usernameFilter.add(key(account.getUsername()));
+        emailFilter.add(key(account.getEmail()));
+    }
+
+    /**
+     * Builds filters with room to double, so their false-positive rate stays at the
+     * target as the number of accounts grows.
+     */
+    private void rebuildFilters() {
+        int capacity = Math.max(INITIAL_FILTER_CAPACITY, accounts.size() * 2);
+        BloomFilter usernames = new BloomFilter(capacity, FILTER_FALSE_POSITIVE_RATE);
+        BloomFilter emails = new BloomFilter(capacity, FILTER_FALSE_POSITIVE_RATE);
+        for (Map.Entry<String, Account> entry : accounts.entrySet()) {
+            usernames.add(entry.getKey());
+        }
+        for (String email : byEmail.keySet()) {
+            emails.add(email);
+        }
+        usernameFilter = usernames;
+        emailFilter = emails;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
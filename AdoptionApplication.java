@@ -0,0 +1,98 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A submitted adoption application: the adoption form's fields as they were on submit.
+ */
+public class AdoptionApplication {
+
+    /** Field holding the {@link BlobStore} reference of the uploaded pet photo, when there is one. */
+    public static final String PET_IMAGE_FIELD = "petImage";
+
+    private final long id;
+    private final long submittedAt;
+    private final Map<String, String> fields;
+
+    public AdoptionApplication(long id, long submittedAt, Map<String, String> fields) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Submission time in milliseconds since the epoch.
+     */
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * Form fields keyed by the adoption form's element ids (e.g. "dogName", "ownerLastname").
+     */
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    public String getField(String key) {
+        String value = fields.get(key);
+        return (value == null) ? "" : value;
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(id);
+        out.writeLong(submittedAt);
+        out.writeInt(fields.size());
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue() == null ? "" : entry.getValue());
+        }
+        return bytes.toByteArray();
+    }
+
+    // Length-prefixed UTF-8 rather than writeUTF, which caps a field at 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Corrupt application field length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static AdoptionApplication fromBytes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long id = in.readLong();
+        long submittedAt = in.readLong();
+        int count = in.readInt();
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            fields.put(readString(in), readString(in));
+        }
+        return new AdoptionApplication(id, submittedAt, fields);
+    }
+
+    @Override
+    public String toString() {
+        return "Application #" + id + " " + fields;
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable storage for adoption applications.
+ *
+ * New submissions go to an append-only write-ahead log (group-committed, see
+ * {@link WriteAheadLog}) and are acknowledged once fsynced. When the log grows past a
+ * threshold its records are added to an indexed snapshot file and the log is emptied.
+ * Snapshot records never change, so compaction copies the old snapshot as-is and appends
+ * the logged records, without holding the store's lock. On startup the snapshot is indexed and any log records left over from the
+ * last run are replayed and compacted, so an acknowledged submission survives a crash.
+ */
+public class AdoptionApplicationStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x50415741; // "PAWA"
+    private static final long COMPACT_LOG_BYTES = 1024 * 1024;
+    private static final int COMPACT_LOG_RECORDS = 500;
+
+    private static AdoptionApplicationStore defaultStore;
+
+    private final File snapshotFile;
+    private final WriteAheadLog log;
+    private RandomAccessFile snapshot;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    // Snapshot index (id -> file offset) and the applications only in the log so far
+    private final TreeMap<Long, Long> snapshotOffsets = new TreeMap<>();
+    private final TreeMap<Long, AdoptionApplication> recent = new TreeMap<>();
+
+    public AdoptionApplicationStore(File snapshotFile, File logFile) throws IOException {
+        this.snapshotFile = snapshotFile;
+        loadSnapshot();
+
+        // Recover anything logged since the last compaction
+        List<AdoptionApplication> replayed = new ArrayList<>();
+        WriteAheadLog.replay(logFile, payload -> {
+            try {
+                replayed.add(AdoptionApplication.fromBytes(payload));
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable application record: " + e.getMessage());
+            }
+        });
+        for (AdoptionApplication application : replayed) {
+            recent.put(application.getId(), application);
+            nextId.accumulateAndGet(application.getId() + 1, Math::max);
+        }
+
+        this.log = new WriteAheadLog(logFile);
+        if (!recent.isEmpty()) {
+            compact();
+        }
+        log.setAfterBatch(this::compactIfNeeded);
+    }
+
+    /**
+     * Returns the shared store in the PawTrack data directory.
+     */
+    public static synchronized AdoptionApplicationStore getDefault() throws IOException {
+        if (defaultStore == null) {
+            AdoptionApplicationStore store = new AdoptionApplicationStore(
+                AppData.file("applications.db"), AppData.file("applications.wal"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing application store: " + e.getMessage());
+                }
+            }));
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Records a new application without blocking the caller.
+     * @return A future completing with the stored application once it is durable on disk.
+     */
+    public CompletableFuture<AdoptionApplication> submit(Map<String, String> fields) {
+        AdoptionApplication application = new AdoptionApplication(nextId.getAndIncrement(),
+            System.currentTimeMillis(), fields);
+        byte[] payload;
+        try {
+            payload = application.toBytes();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // Indexed on the writer thread as soon as the batch is fsynced, so the compaction
+        // that may follow the batch always sees it
+        return log.append(payload, () -> {
+            synchronized (this) {
+                recent.put(application.getId(), application);
+            }
+        }).thenApply(size -> application);
+    }
+
+    public synchronized int count() {
+        return snapshotOffsets.size() + recent.size();
+    }
+
+    /**
+     * @return The application with the given id, or null if there is none.
+     */
+    public synchronized AdoptionApplication findById(long id) throws IOException {
+        AdoptionApplication application = recent.get(id);
+        if (application != null) {
+            return application;
+        }
+        Long offset = snapshotOffsets.get(id);
+        return (offset == null) ? null : readAt(offset);
+    }
+
+    /**
+     * Returns up to limit applications in submission order, skipping the first offset.
+     */
+    public synchronized List<AdoptionApplication> findPage(int offset, int limit) throws IOException {
+        List<AdoptionApplication> page = new ArrayList<>();
+        int index = 0;
+        for (Long position : snapshotOffsets.values()) {
+            if (page.size() >= limit) {
+                return page;
+            }
+            if (index++ >= offset) {
+                page.add(readAt(position));
+            }
+        }
+        for (AdoptionApplication application : recent.values()) {
+            if (page.size() >= limit) {
+                return page;
+            }
+            if (index++ >= offset) {
+                page.add(application);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Commits any queued submissions and closes the store.
+     */
+    public void close() throws IOException {
+        log.close();
+        synchronized (this) {
+            if (snapshot != null) {
+                snapshot.close();
+            }
+        }
+    }
+
+    // --- Compaction ---
+
+    private void compactIfNeeded() {
+        try {
+            boolean due;
+            synchronized (this) {
+                due = recent.size() >= COMPACT_LOG_RECORDS;
+            }
+            if (due || log.size() >= COMPACT_LOG_BYTES) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Application store compaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the snapshot and appends the logged applications to it, swaps the copy in and
+     * empties the log. Runs on the log's writer thread (or during startup), so no batch
+     * commits concurrently and {@link #recent} only changes here; readers are blocked just
+     * for the swap.
+     */
+    private void compact() throws IOException {
+        List<AdoptionApplication> logged;
+        long snapshotLength;
+        synchronized (this) {
+            logged = new ArrayList<>(recent.values());
+            snapshotLength = (snapshot == null) ? 0 : snapshot.length();
+        }
+
+        File temp = new File(snapshotFile.getPath() + ".compact");
+        TreeMap<Long, Long> newOffsets = new TreeMap<>();
+        try (FileOutputStream fileOut = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            long position = snapshotLength;
+            if (snapshotLength == 0) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                position = 4;
+            } else {
+                try (FileInputStream in = new FileInputStream(snapshotFile)) {
+                    in.transferTo(out); // Sequential copy; offsets stay valid
+                }
+            }
+            for (AdoptionApplication application : logged) {
+                if (!snapshotOffsets.containsKey(application.getId())) { // Logged again after a crash mid-compaction
+                    position = writeRecord(out, application, position, newOffsets);
+                }
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+
+        synchronized (this) {
+            if (snapshot != null) {
+                snapshot.close();
+            }
+            Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshot = new RandomAccessFile(snapshotFile, "r");
+            snapshotOffsets.putAll(newOffsets);
+            for (AdoptionApplication application : logged) {
+                recent.remove(application.getId());
+            }
+        }
+
+        // Only now is it safe to drop the log: every record is in the durable snapshot
+        log.truncate();
+    }
+
+    private static long writeRecord(DataOutputStream out, AdoptionApplication application,
+                                    long position, TreeMap<Long, Long> offsets) throws IOException {
+        byte[] bytes = application.toBytes();
+        offsets.put(application.getId(), position);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return position + 4 + bytes.length;
+    }
+
+    private void loadSnapshot() throws IOException {
+        if (!snapshotFile.exists()) {
+            return;
+        }
+        long length = snapshotFile.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a PawTrack application store: " + snapshotFile);
+            }
+            long position = 4;
+            while (position < length) {
+                int size = in.readInt();
+                byte[] bytes = new byte[size];
+                in.readFully(bytes);
+                long id = AdoptionApplication.fromBytes(bytes).getId();
+                snapshotOffsets.put(id, position);
+                nextId.accumulateAndGet(id + 1, Math::max);
+                position += 4 + size;
+            }
+        }
+        snapshot = new RandomAccessFile(snapshotFile, "r");
+    }
+
+    private AdoptionApplication readAt(long offset) throws IOException {
+        snapshot.seek(offset);
+        byte[] bytes = new byte[snapshot.readInt()];
+        snapshot.readFully(bytes);
+        return AdoptionApplication.fromBytes(bytes);
+    }
+}
@@ -1,15 +1,26 @@
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextHitInfo;
+import java.awt.font.TextLayout;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 /**
  * Main application class that sets up the JFrame window for the adoption form.
@@ -39,26 +50,80 @@ public class AdoptionForm {
 class FormCanvas extends JPanel {
 
     // --- State Management ---
-    private final Map<String, String> formState = new HashMap<>();
-    private final Map<String, Rectangle> uiElements = new LinkedHashMap<>(); // Use LinkedHashMap to maintain order
-    private BufferedImage petImage = null;
+    private final Map<String, TextBuffer> formState = new HashMap<>(); // Input id -> editable text
+    private final Map<String, FormElement> elements = new LinkedHashMap<>(); // Use LinkedHashMap to maintain order
+    private final List<FormElement> inputs = new ArrayList<>();
+    private final ElementGrid hitGrid = new ElementGrid(64); // Resolves clicks without scanning every element
+    private BufferedImage petImage = null; // Display-size thumbnail of the uploaded photo
+    private String petImageRef = null;     // Blob reference to the normalized copy kept with the application
+    private Future<?> pendingUpload = null;
+    private int uploadGeneration = 0;      // Ignores callbacks from superseded uploads
+    private int uploadProgress = -1;       // Percent done, or -1 when no upload is running
     private String activeElementId = null;
     private boolean cursorVisible = true;
     private JFrame parentFrame = null; // Add reference to parent frame
 
+    // Everything that does not change while typing (header, sections, labels, image),
+    // rendered once; paintComponent blits it and draws only the input boxes on top
+    private BufferedImage backgroundLayer = null;
+
     private final Font LABEL_FONT = new Font("Roboto", Font.BOLD, 14);
     private final Font TEXT_FONT = new Font("Roboto", Font.PLAIN, 16);
     private final Font TITLE_FONT = new Font("Roboto", Font.BOLD, 22);
     private final Font HEADER_FONT = new Font("Roboto", Font.BOLD, 28);
     private final Font BUTTON_FONT = new Font("Roboto", Font.BOLD, 16);
+    private final Font PLACEHOLDER_FONT = new Font("SansSerif", Font.PLAIN, 80);
+
+    // Styling is decoded/allocated once instead of on every paint
+    private final Color DARK_COLOR = Color.decode("#343a40");        // Header bar, section titles
+    private final Color BACK_COLOR = Color.decode("#dc3545");        // Red
+    private final Color SUBMIT_COLOR = Color.decode("#28a745");      // Green
+    private final Color MUTED_COLOR = Color.decode("#6c757d");       // Upload button, field labels
+    private final Color PLACEHOLDER_COLOR = Color.decode("#adb5bd");
+    private final Color SECTION_FILL = Color.decode("#f8f9fa");
+    private final Color SECTION_BORDER = Color.decode("#e9ecef");
+    private final Color INPUT_BORDER = Color.decode("#ced4da");
+    private final Color ERROR_BORDER = Color.decode("#dc3545");      // Red, like the back button
+    private final Color ACTIVE_BORDER = Color.decode("#007bff");     // Blue
+    private final Color SELECTION_COLOR = Color.decode("#b3d7ff");
+    private final Color INPUT_TEXT_COLOR = Color.decode("#495057");
+    private final Color OVERLAY_COLOR = new Color(255, 255, 255, 210);
+    private final Stroke THIN_STROKE = new BasicStroke(1);
+    private final Stroke THICK_STROKE = new BasicStroke(2);
+    private final Stroke DASHED_STROKE = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{6}, 0);
+
+    // Text is laid out with one fixed context so layouts can be reused by paint and by mouse hit-testing
+    private static final FontRenderContext TEXT_CONTEXT =
+        new FontRenderContext(null, RenderingHints.VALUE_TEXT_ANTIALIAS_ON, RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT);
+    private final Map<String, FieldLayout> fieldLayouts = new HashMap<>(); // Input id -> layout of its visible text
+    private final Map<String, Integer> scrollStarts = new HashMap<>(); // Active input id -> first character shown
+    private static final int MAX_LAID_OUT_CHARS = 256; // More than the widest box can show
+
+    // Fields are validated once typing pauses, not on every keystroke
+    private static final int VALIDATE_DELAY_MILLIS = 300;
+    private final Map<String, Long> validatedVersions = new HashMap<>(); // Input id -> TextBuffer version last validated
+    private String pendingValidationId = null;
+    private Timer validateTimer;
+    private final Rectangle paintClip = new Rectangle(); // Reused by paintComponent
+    private int textAscent;
+    private int textHeight;
+    private FontMetrics textMetrics;
+
+    private static final Rectangle IMAGE_AREA = new Rectangle(865, 120, 280, 200);
+    private static final Pattern LINE_BREAK = Pattern.compile("\\R");
+
+    private final Validator validator = createValidator();
 
 
     public FormCanvas() {
         // Set the fixed size for the non-scrollable panel
         setPreferredSize(new Dimension(1200, 900));
-        setBackground(Color.decode("#ffffff"));
-        initializeFormState();
+        setBackground(Color.WHITE);
+        textMetrics = getFontMetrics(TEXT_FONT);
+        textAscent = textMetrics.getAscent();
+        textHeight = textMetrics.getHeight();
         initializeUIElements();
+        initializeFormState();
         setupInputHandling();
         setupCursorBlinking();
     }
@@ -67,45 +132,81 @@ class FormCanvas extends JPanel {
      * Initializes the map that holds the text data for each form field.
      */
     private void initializeFormState() {
-        String[] keys = {
-            "ownerLastname", "contactNumber", "ownerAge", "ownerFirstname", "ownerAddress", "ownerSex",
-            "ownerMiddlename", "petColor", "vetInfo", "petAge", "petBreed", "reasonForAdopt",
-            "petSex", "petStatus", "dogName"
-        };
-        for (String key : keys) {
-            formState.put(key, "");
+        for (FormElement input : inputs) {
+            TextBuffer buffer = new TextBuffer();
+            formState.put(input.getId(), buffer);
+            if (validator.hasField(input.getId())) {
+                validator.setSource(input.getId(), () -> buffer.toString().trim());
+            }
         }
+        validator.setListener((field, error) -> repaintElement(field));
+        validateTimer = new Timer(VALIDATE_DELAY_MILLIS, _ -> flushValidation());
+        validateTimer.setRepeats(false);
+        ToolTipManager.sharedInstance().registerComponent(this); // Shows field errors on hover
     }
 
     /**
-     * Defines the positions and sizes of all UI elements using Rectangle objects.
+     * The adoption form's rules, declared once; see {@link Validator}. Fields without
+     * rules are optional free text.
+     */
+    private static Validator createValidator() {
+        return new Validator()
+            .addField("ownerLastname", Validator.required("Enter the owner's last name."))
+            .addField("contactNumber",
+                Validator.required("Enter a contact number."),
+                Validator.matches(Validator.PHONE, "Enter a phone number."))
+            .addField("ownerAge",
+                Validator.required("Enter the owner's age."),
+                Validator.wholeNumber(18, 120, "Adopters must be 18 or older."))
+            .addField("ownerFirstname", Validator.required("Enter the owner's first name."))
+            .addField("ownerAddress", Validator.required("Enter the owner's address."))
+            .addField("petAge", Validator.decimal(0, 40, "Enter the pet's age in years, e.g. 2 or 0.5."))
+            .addField("dogName", Validator.required("Enter the dog's name."));
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        FormElement element = hitGrid.elementAt(e.getX(), e.getY());
+        return (element == null) ? null : validator.getVisibleError(element.getId());
+    }
+
+    /**
+     * Defines the positions, sizes and labels of all UI elements.
      */
     private void initializeUIElements() {
         // Header Buttons
-        uiElements.put("backButton", new Rectangle(930, 15, 110, 40));
-        uiElements.put("submitButton", new Rectangle(1060, 15, 110, 40));
+        addElement(new FormElement("backButton", FormElement.Kind.BUTTON, new Rectangle(930, 15, 110, 40), "BACK"));
+        addElement(new FormElement("submitButton", FormElement.Kind.BUTTON, new Rectangle(1060, 15, 110, 40), "SUBMIT"));
 
         // Image Section
-        uiElements.put("dogName", new Rectangle(865, 340, 280, 40));
-        uiElements.put("uploadButton", new Rectangle(865, 400, 280, 45));
+        addElement(new FormElement("dogName", FormElement.Kind.INPUT, new Rectangle(865, 340, 280, 40), "NAME OF DOG"));
+        addElement(new FormElement("uploadButton", FormElement.Kind.BUTTON, new Rectangle(865, 400, 280, 45), "UPLOAD IMAGE"));
 
         // Owner Info Section
-        uiElements.put("ownerLastname", new Rectangle(50, 170, 230, 40));
-        uiElements.put("contactNumber", new Rectangle(300, 170, 230, 40));
-        uiElements.put("ownerAge", new Rectangle(550, 170, 230, 40));
-        uiElements.put("ownerFirstname", new Rectangle(50, 250, 230, 40));
-        uiElements.put("ownerMiddlename", new Rectangle(300, 250, 230, 40));
-        uiElements.put("ownerSex", new Rectangle(550, 250, 230, 40));
-        uiElements.put("ownerAddress", new Rectangle(50, 330, 730, 90));
+        addElement(new FormElement("ownerLastname", FormElement.Kind.INPUT, new Rectangle(50, 170, 230, 40), "LASTNAME"));
+        addElement(new FormElement("contactNumber", FormElement.Kind.INPUT, new Rectangle(300, 170, 230, 40), "CONTACT NUMBER"));
+        addElement(new FormElement("ownerAge", FormElement.Kind.INPUT, new Rectangle(550, 170, 230, 40), "AGE"));
+        addElement(new FormElement("ownerFirstname", FormElement.Kind.INPUT, new Rectangle(50, 250, 230, 40), "FIRST NAME"));
+        addElement(new FormElement("ownerMiddlename", FormElement.Kind.INPUT, new Rectangle(300, 250, 230, 40), "MIDDLE NAME"));
+        addElement(new FormElement("ownerSex", FormElement.Kind.INPUT, new Rectangle(550, 250, 230, 40), "SEX"));
+        addElement(new FormElement("ownerAddress", FormElement.Kind.INPUT, new Rectangle(50, 330, 730, 90), "ADDRESS"));
 
         // Pet Info Section (reverted to original positions)
-        uiElements.put("petColor", new Rectangle(50, 550, 230, 40));
-        uiElements.put("vetInfo", new Rectangle(300, 550, 480, 40));
-        uiElements.put("petAge", new Rectangle(50, 630, 230, 40));
-        uiElements.put("petBreed", new Rectangle(300, 630, 230, 40));
-        uiElements.put("petSex", new Rectangle(550, 630, 230, 40));
-        uiElements.put("reasonForAdopt", new Rectangle(50, 710, 480, 90));
-        uiElements.put("petStatus", new Rectangle(550, 710, 230, 40));
+        addElement(new FormElement("petColor", FormElement.Kind.INPUT, new Rectangle(50, 550, 230, 40), "PET COLOR"));
+        addElement(new FormElement("vetInfo", FormElement.Kind.INPUT, new Rectangle(300, 550, 480, 40), "VET INFO (INJECTION ON RABIES)"));
+        addElement(new FormElement("petAge", FormElement.Kind.INPUT, new Rectangle(50, 630, 230, 40), "AGE"));
+        addElement(new FormElement("petBreed", FormElement.Kind.INPUT, new Rectangle(300, 630, 230, 40), "PET BREED"));
+        addElement(new FormElement("petSex", FormElement.Kind.INPUT, new Rectangle(550, 630, 230, 40), "SEX"));
+        addElement(new FormElement("reasonForAdopt", FormElement.Kind.INPUT, new Rectangle(50, 710, 480, 90), "REASON FOR ADOPT"));
+        addElement(new FormElement("petStatus", FormElement.Kind.INPUT, new Rectangle(550, 710, 230, 40), "STATUS OF PET"));
+    }
+
+    private void addElement(FormElement element) {
+        elements.put(element.getId(), element);
+        hitGrid.add(element);
+        if (element.getKind() == FormElement.Kind.INPUT) {
+            inputs.add(element);
+        }
     }
     
     /**
@@ -128,27 +229,52 @@ class FormCanvas extends JPanel {
                 requestFocusInWindow(); // Ensure panel has focus on click
                 Point p = e.getPoint();
                 boolean clickedOnInput = false;
-
-                for (Map.Entry<String, Rectangle> entry : uiElements.entrySet()) {
-                    if (entry.getValue().contains(p)) {
-                        if (isInputField(entry.getKey())) {
-                            activeElementId = entry.getKey();
-                            clickedOnInput = true;
-                        } else if (entry.getKey().equals("uploadButton")) {
-                            handleImageUpload();
-                        } else if (entry.getKey().equals("submitButton")) {
-                            System.out.println("Form Submitted: " + formState);
-                            JOptionPane.showMessageDialog(FormCanvas.this, "Form data has been logged to the console.");
-                        } else if (entry.getKey().equals("backButton")) {
-                            handleBackButton();
-                        }
+                String previousActiveId = activeElementId;
+
+                FormElement clicked = hitGrid.elementAt(p.x, p.y);
+                if (clicked != null) {
+                    if (clicked.getKind() == FormElement.Kind.INPUT) {
+                        activeElementId = clicked.getId();
+                        clickedOnInput = true;
+                        // Shift+click extends the selection within the same field
+                        boolean extend = e.isShiftDown() && clicked.getId().equals(previousActiveId);
+                        formState.get(activeElementId).moveCaret(caretIndexAt(clicked, p.x), extend);
+                        caretChanged();
+                    } else if (clicked.getId().equals("uploadButton")) {
+                        handleImageUpload();
+                    } else if (clicked.getId().equals("submitButton")) {
+                        handleSubmit();
+                    } else if (clicked.getId().equals("backButton")) {
+                        handleBackButton();
                     }
                 }
 
                 if (!clickedOnInput) {
                     activeElementId = null;
                 }
-                repaint();
+                if (!Objects.equals(previousActiveId, activeElementId)) {
+                    if (previousActiveId != null) {
+                        scrollStarts.remove(previousActiveId); // Inactive fields show their start
+                    }
+                    if (previousActiveId != null && validator.hasField(previousActiveId)) {
+                        flushValidation();
+                        validator.touch(previousActiveId); // Errors show once a field is left
+                    }
+                    cursorVisible = true;
+                    repaintElement(previousActiveId);
+                    repaintElement(activeElementId);
+                }
+            }
+        });
+
+        addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                // Drag-select inside the active field
+                if (activeElementId != null) {
+                    formState.get(activeElementId).moveCaret(caretIndexAt(elements.get(activeElementId), e.getX()), true);
+                    caretChanged();
+                }
             }
         });
 
@@ -157,22 +283,180 @@ class FormCanvas extends JPanel {
             public void keyTyped(KeyEvent e) {
                 if (activeElementId != null) {
                     char typedChar = e.getKeyChar();
-                    String currentText = formState.get(activeElementId);
+                    TextBuffer text = formState.get(activeElementId);
                     if (typedChar == KeyEvent.VK_BACK_SPACE) {
-                        if (currentText != null && !currentText.isEmpty()) {
-                            formState.put(activeElementId, currentText.substring(0, currentText.length() - 1));
-                        }
-                    } else if (Character.isDefined(typedChar) && typedChar >= ' ') { // Printable chars
-                        formState.put(activeElementId, currentText + typedChar);
+                        text.deleteBackward();
+                    } else if (Character.isDefined(typedChar) && typedChar >= ' ' && typedChar != KeyEvent.VK_DELETE) { // Printable chars
+                        text.replaceSelection(String.valueOf(typedChar));
+                    } else {
+                        return;
                     }
-                    repaint();
+                    caretChanged();
+                }
+            }
+
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (activeElementId != null && handleEditingKey(formState.get(activeElementId), e)) {
+                    e.consume();
+                    caretChanged();
                 }
             }
         });
     }
-    
+
+    /**
+     * Handles caret movement, deletion and clipboard/undo shortcuts for the active field.
+     * @return True if the key was used.
+     */
+    private boolean handleEditingKey(TextBuffer text, KeyEvent e) {
+        boolean shift = e.isShiftDown();
+        boolean shortcut = (e.getModifiersEx() & Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()) != 0;
+
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_LEFT:
+                // Without shift, Left first collapses a selection to its start
+                text.moveCaret(text.hasSelection() && !shift ? text.getSelectionStart() : text.getCaret() - 1, shift);
+                return true;
+            case KeyEvent.VK_RIGHT:
+                text.moveCaret(text.hasSelection() && !shift ? text.getSelectionEnd() : text.getCaret() + 1, shift);
+                return true;
+            case KeyEvent.VK_HOME:
+                text.moveCaret(0, shift);
+                return true;
+            case KeyEvent.VK_END:
+                text.moveCaret(text.length(), shift);
+                return true;
+            case KeyEvent.VK_DELETE:
+                text.deleteForward();
+                return true;
+            default:
+                break;
+        }
+        if (!shortcut) {
+            return false;
+        }
+
+        Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_A:
+                text.selectAll();
+                return true;
+            case KeyEvent.VK_C:
+            case KeyEvent.VK_X:
+                if (text.hasSelection()) {
+                    clipboard.setContents(new StringSelection(text.getSelectedText()), null);
+                    if (e.getKeyCode() == KeyEvent.VK_X) {
+                        text.replaceSelection("");
+                    }
+                }
+                return true;
+            case KeyEvent.VK_V:
+                try {
+                    String pasted = (String) clipboard.getData(DataFlavor.stringFlavor);
+                    text.replaceSelection(LINE_BREAK.matcher(pasted).replaceAll(" ")); // Fields are single-line
+                } catch (UnsupportedFlavorException | IOException | IllegalStateException ex) {
+                    System.err.println("Could not paste: " + ex.getMessage());
+                }
+                return true;
+            case KeyEvent.VK_Z:
+                if (shift) {
+                    text.redo();
+                } else {
+                    text.undo();
+                }
+                return true;
+            case KeyEvent.VK_Y:
+                text.redo();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Shows the caret solid after an edit or caret move and repaints the active field.
+     */
+    private void caretChanged() {
+        cursorVisible = true;
+        repaintElement(activeElementId);
+        if (activeElementId != null && validator.hasField(activeElementId)
+                && formState.get(activeElementId).getVersion() != validatedVersions.getOrDefault(activeElementId, 0L)) {
+            if (pendingValidationId != null && !pendingValidationId.equals(activeElementId)) {
+                flushValidation();
+            }
+            pendingValidationId = activeElementId;
+            validateTimer.restart(); // Only moving the caret leaves the timer alone
+        }
+    }
+
+    /**
+     * Validates the field edited since its last check, if any. Runs when typing pauses and
+     * before the field is left, so its text is copied once per pause rather than per keystroke.
+     */
+    private void flushValidation() {
+        validateTimer.stop();
+        if (pendingValidationId != null) {
+            TextBuffer text = formState.get(pendingValidationId);
+            validator.update(pendingValidationId, text.toString().trim());
+            validatedVersions.put(pendingValidationId, text.getVersion());
+            pendingValidationId = null;
+        }
+    }
+
+    /**
+     * Maps an x coordinate inside an input field to the nearest caret position in its text.
+     */
+    private int caretIndexAt(FormElement input, int x) {
+        FieldLayout layout = layoutFor(input, scrollStarts.getOrDefault(input.getId(), 0)); // As last painted
+        return layout.indexAt(x - (input.getBounds().x + 10));
+    }
+
+    /**
+     * Returns the first character shown in the active field, scrolling just enough that the
+     * caret stays inside the box. Measures only the characters between the shown start and
+     * the caret, at most a box's width of them, so long text costs no more than short.
+     */
+    private int scrollStart(FormElement input, TextBuffer text) {
+        int start = Math.min(scrollStarts.getOrDefault(input.getId(), 0), text.length());
+        int caret = text.getCaret();
+        if (caret < start) {
+            start = caret;
+        } else {
+            int visibleWidth = input.getBounds().width - 22;
+            int first = caret; // Earliest start that still shows the caret
+            int width = 0;
+            while (first > start) {
+                width += textMetrics.charWidth(text.charAt(first - 1));
+                if (width > visibleWidth) {
+                    break;
+                }
+                first--;
+            }
+            start = first;
+        }
+        scrollStarts.put(input.getId(), start);
+        return start;
+    }
+
+    /**
+     * Returns the cached layout of the part of a field's text shown from start, re-laying it
+     * out only after the text changed or scrolled. Only that part is copied and laid out.
+     */
+    private FieldLayout layoutFor(FormElement input, int start) {
+        TextBuffer text = formState.get(input.getId());
+        FieldLayout layout = fieldLayouts.get(input.getId());
+        if (layout == null || layout.version != text.getVersion() || layout.start != start) {
+            int end = Math.min(text.length(), Math.max(start + MAX_LAID_OUT_CHARS, text.getCaret()));
+            layout = new FieldLayout(text.substring(start, end), start, text.getVersion(), TEXT_FONT, TEXT_CONTEXT);
+            fieldLayouts.put(input.getId(), layout);
+        }
+        return layout;
+    }
+
     /**
-     * Opens a file chooser and loads the selected image.
+     * Opens a file chooser and ingests the selected image in the background.
+     * Choosing another image while one is still processing abandons the first.
      */
     private void handleImageUpload() {
         JFileChooser fileChooser = new JFileChooser();
@@ -181,18 +465,85 @@ class FormCanvas extends JPanel {
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
-            try {
-                petImage = ImageIO.read(selectedFile);
-                repaint();
-            } catch (IOException e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error loading image.", "Image Error", JOptionPane.ERROR_MESSAGE);
+            if (pendingUpload != null) {
+                pendingUpload.cancel(true);
             }
+            int generation = ++uploadGeneration;
+            uploadProgress = 0;
+            repaint(IMAGE_AREA);
+
+            pendingUpload = ImageIngest.ingest(selectedFile, IMAGE_AREA.width, IMAGE_AREA.height, new ImageIngest.Listener() {
+                @Override
+                public void progress(int percent) {
+                    if (generation == uploadGeneration) {
+                        uploadProgress = percent;
+                        repaint(IMAGE_AREA);
+                    }
+                }
+
+                @Override
+                public void completed(ImageIngest.Result ingested) {
+                    if (generation == uploadGeneration) {
+                        petImage = ingested.getThumbnail();
+                        petImageRef = ingested.getStoredRef();
+                        uploadProgress = -1;
+                        backgroundLayer = null; // The image is part of the cached background
+                        repaint(IMAGE_AREA);
+                    }
+                }
+
+                @Override
+                public void failed(Exception error) {
+                    if (generation == uploadGeneration) {
+                        uploadProgress = -1;
+                        repaint(IMAGE_AREA);
+                        System.err.println("Error loading image: " + error.getMessage());
+                        JOptionPane.showMessageDialog(FormCanvas.this, "Error loading image.", "Image Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            });
         }
     }
 
-    private boolean isInputField(String id) {
-        return !id.equals("uploadButton") && !id.equals("submitButton") && !id.equals("backButton");
+    /**
+     * Checks the form, then saves the application through the durable application store.
+     * The write happens off the EDT; the result is reported once it is on disk.
+     */
+    private void handleSubmit() {
+        flushValidation();
+        if (!validator.validateAll()) {
+            StringBuilder message = new StringBuilder("Please check the following:\n");
+            for (Map.Entry<String, String> error : validator.getVisibleErrors().entrySet()) {
+                message.append("\n").append(elements.get(error.getKey()).getLabel()).append(": ").append(error.getValue());
+            }
+            JOptionPane.showMessageDialog(this, message.toString(), "Check Application", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        AdoptionApplicationStore store;
+        try {
+            store = AdoptionApplicationStore.getDefault();
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Could not open the application store.", "Submit Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (FormElement input : inputs) {
+            fields.put(input.getId(), formState.get(input.getId()).toString());
+        }
+        if (petImageRef != null) {
+            fields.put(AdoptionApplication.PET_IMAGE_FIELD, petImageRef);
+        }
+        store.submit(fields).whenComplete((application, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    System.err.println("Error saving application: " + error.getMessage());
+                    JOptionPane.showMessageDialog(FormCanvas.this, "Error saving application.", "Submit Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    CatalogSearch.getInstance().indexApplication(application);
+                    JOptionPane.showMessageDialog(FormCanvas.this, "Application #" + application.getId() + " has been saved.");
+                }
+            }));
     }
 
     /**
@@ -201,35 +552,86 @@ class FormCanvas extends JPanel {
     private void setupCursorBlinking() {
         Timer timer = new Timer(500, _ -> {
             cursorVisible = !cursorVisible;
-            if (activeElementId != null) {
-                repaint();
-            }
+            repaintElement(activeElementId); // Only the active field shows a caret
         });
         timer.start();
     }
 
+    /**
+     * Repaints just one element's box (plus its 2px active border), or nothing if id is null.
+     */
+    private void repaintElement(String id) {
+        FormElement element = (id == null) ? null : elements.get(id);
+        if (element != null) {
+            Rectangle rect = element.getBounds();
+            repaint(rect.x - 2, rect.y - 2, rect.width + 4, rect.height + 4);
+        }
+    }
+
 
     /**
      * The main drawing method, equivalent to the JavaScript draw() function.
      * This is called automatically by Swing when the component needs to be redrawn.
+     * Only the parts inside the clip are drawn, so repainting one field stays cheap.
      */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
+        Rectangle clip = paintClip;
+        if (g2d.getClipBounds(clip) == null) {
+            clip.setBounds(0, 0, getWidth(), getHeight());
+        }
+
+        // Blit the cached static layer for the dirty area only
+        if (backgroundLayer == null || backgroundLayer.getWidth() != getWidth() || backgroundLayer.getHeight() != getHeight()) {
+            backgroundLayer = renderBackground();
+        }
+        g2d.drawImage(backgroundLayer, clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+                      clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, null);
+
+        // Enable anti-aliasing for smoother text and shapes
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // Draw the input fields that need it
+        for (FormElement input : inputs) {
+            Rectangle rect = input.getBounds();
+            if (clip.intersects(rect.x - 2, rect.y - 2, rect.width + 4, rect.height + 4)) {
+                drawInput(g2d, input, clip);
+            }
+        }
+
+        if (uploadProgress >= 0 && clip.intersects(IMAGE_AREA)) {
+            drawUploadProgress(g2d);
+        }
+    }
+
+    /**
+     * Renders everything that does not change while the user types into an offscreen image.
+     */
+    private BufferedImage renderBackground() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        BufferedImage layer = (config != null)
+            ? config.createCompatibleImage(width, height, Transparency.OPAQUE)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = layer.createGraphics();
+        g2d.setColor(getBackground());
+        g2d.fillRect(0, 0, width, height);
 
         // Enable anti-aliasing for smoother text and shapes
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         
         // Draw Header
-        g2d.setColor(Color.decode("#343a40"));
-        g2d.fillRect(0, 0, getWidth(), 70);
+        g2d.setColor(DARK_COLOR);
+        g2d.fillRect(0, 0, width, 70);
         g2d.setColor(Color.WHITE);
         g2d.setFont(HEADER_FONT);
         g2d.drawString("NEW ADOPTION", 30, 45);
-        drawButton(g2d, uiElements.get("backButton"), "BACK", Color.decode("#dc3545"));
-        drawButton(g2d, uiElements.get("submitButton"), "SUBMIT", Color.decode("#28a745"));
+        drawButton(g2d, elements.get("backButton"), BACK_COLOR);
+        drawButton(g2d, elements.get("submitButton"), SUBMIT_COLOR);
 
         // Draw Sections
         drawSection(g2d, new Rectangle(30, 100, 780, 350), "OWNER INFORMATION");
@@ -237,101 +639,126 @@ class FormCanvas extends JPanel {
         drawSection(g2d, new Rectangle(840, 100, 330, 440), null); // Image section has no title
 
         // Draw Image Area
-        drawButton(g2d, uiElements.get("uploadButton"), "UPLOAD IMAGE", Color.decode("#6c757d"));
-        Rectangle placeholder = new Rectangle(865, 120, 280, 200);
+        drawButton(g2d, elements.get("uploadButton"), MUTED_COLOR);
+        Rectangle placeholder = IMAGE_AREA;
         if (petImage != null) {
-            g2d.drawImage(petImage, placeholder.x, placeholder.y, placeholder.width, placeholder.height, null);
+            // The thumbnail already fits the area; centre it rather than stretch it
+            g2d.drawImage(petImage, placeholder.x + (placeholder.width - petImage.getWidth()) / 2,
+                          placeholder.y + (placeholder.height - petImage.getHeight()) / 2, null);
         } else {
-            g2d.setFont(new Font("SansSerif", Font.PLAIN, 80));
-            drawCenteredString(g2d, "🐕", placeholder, Color.decode("#adb5bd"));
+            g2d.setFont(PLACEHOLDER_FONT);
+            drawCenteredString(g2d, "🐕", placeholder, PLACEHOLDER_COLOR);
         }
-        g2d.setColor(Color.decode("#adb5bd"));
-        Stroke dashed = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{6}, 0);
-        g2d.setStroke(dashed);
+        g2d.setColor(PLACEHOLDER_COLOR);
+        g2d.setStroke(DASHED_STROKE);
         g2d.draw(new RoundRectangle2D.Double(placeholder.x, placeholder.y, placeholder.width, placeholder.height, 15, 15));
-        g2d.setStroke(new BasicStroke(1));
-
-
-        // Draw all input fields
-        drawInput(g2d, uiElements.get("dogName"), "NAME OF DOG");
-        drawInput(g2d, uiElements.get("ownerLastname"), "LASTNAME");
-        drawInput(g2d, uiElements.get("contactNumber"), "CONTACT NUMBER");
-        drawInput(g2d, uiElements.get("ownerAge"), "AGE");
-        drawInput(g2d, uiElements.get("ownerFirstname"), "FIRST NAME");
-        drawInput(g2d, uiElements.get("ownerMiddlename"), "MIDDLE NAME");
-        drawInput(g2d, uiElements.get("ownerSex"), "SEX");
-        drawInput(g2d, uiElements.get("ownerAddress"), "ADDRESS");
-        drawInput(g2d, uiElements.get("petColor"), "PET COLOR");
-        drawInput(g2d, uiElements.get("vetInfo"), "VET INFO (INJECTION ON RABIES)");
-        drawInput(g2d, uiElements.get("petAge"), "AGE");
-        drawInput(g2d, uiElements.get("petBreed"), "PET BREED");
-        drawInput(g2d, uiElements.get("petSex"), "SEX");
-        drawInput(g2d, uiElements.get("reasonForAdopt"), "REASON FOR ADOPT");
-        drawInput(g2d, uiElements.get("petStatus"), "STATUS OF PET");
+        g2d.setStroke(THIN_STROKE);
+
+        // Draw the labels above the input fields; the boxes themselves are drawn live
+        g2d.setFont(LABEL_FONT);
+        g2d.setColor(MUTED_COLOR);
+        for (FormElement input : inputs) {
+            g2d.drawString(input.getLabel(), input.getBounds().x, input.getBounds().y - 8);
+        }
+
+        g2d.dispose();
+        return layer;
     }
 
     private void drawSection(Graphics2D g2d, Rectangle bounds, String title) {
-        g2d.setColor(Color.decode("#f8f9fa"));
+        g2d.setColor(SECTION_FILL);
         g2d.fill(new RoundRectangle2D.Double(bounds.x, bounds.y, bounds.width, bounds.height, 15, 15));
-        g2d.setColor(Color.decode("#e9ecef"));
+        g2d.setColor(SECTION_BORDER);
         g2d.draw(new RoundRectangle2D.Double(bounds.x, bounds.y, bounds.width, bounds.height, 15, 15));
 
         if (title != null) {
-            g2d.setColor(Color.decode("#343a40"));
+            g2d.setColor(DARK_COLOR);
             g2d.setFont(TITLE_FONT);
             g2d.drawString(title, bounds.x + 20, bounds.y + 35);
-            g2d.setColor(Color.decode("#e9ecef"));
-            g2d.setStroke(new BasicStroke(2));
+            g2d.setColor(SECTION_BORDER);
+            g2d.setStroke(THICK_STROKE);
             g2d.drawLine(bounds.x + 20, bounds.y + 45, bounds.x + bounds.width - 20, bounds.y + 45);
-            g2d.setStroke(new BasicStroke(1));
+            g2d.setStroke(THIN_STROKE);
         }
     }
 
-    private void drawButton(Graphics2D g2d, Rectangle rect, String text, Color color) {
+    private void drawButton(Graphics2D g2d, FormElement button, Color color) {
+        Rectangle rect = button.getBounds();
         g2d.setColor(color);
-        g2d.fill(new RoundRectangle2D.Double(rect.x, rect.y, rect.width, rect.height, 10, 10));
+        g2d.fill(button.getOutline());
         g2d.setFont(BUTTON_FONT);
-        drawCenteredString(g2d, text, rect, Color.WHITE);
+        drawCenteredString(g2d, button.getLabel(), rect, Color.WHITE);
     }
     
-    private void drawInput(Graphics2D g2d, Rectangle rect, String label) {
-        // Draw Label
-        g2d.setFont(LABEL_FONT);
-        g2d.setColor(Color.decode("#6c757d"));
-        g2d.drawString(label, rect.x, rect.y - 8);
+    /**
+     * Draws one input box with its text, selection and caret. Uses only precomputed
+     * styling and the field's cached text layout, so it allocates nothing while the
+     * text is unchanged.
+     * @param clip The paint clip, restored before returning.
+     */
+    private void drawInput(Graphics2D g2d, FormElement input, Rectangle clip) {
+        Rectangle rect = input.getBounds();
 
         // Draw Input Box
-        boolean isActive = rect.equals(uiElements.get(activeElementId));
+        boolean isActive = input.getId().equals(activeElementId);
         g2d.setColor(Color.WHITE);
-        g2d.fill(new RoundRectangle2D.Double(rect.x, rect.y, rect.width, rect.height, 10, 10));
-        g2d.setColor(isActive ? Color.decode("#007bff") : Color.decode("#ced4da"));
-        g2d.setStroke(new BasicStroke(isActive ? 2 : 1));
-        g2d.draw(new RoundRectangle2D.Double(rect.x, rect.y, rect.width, rect.height, 10, 10));
-        g2d.setStroke(new BasicStroke(1));
-
-        // Draw Text and Cursor
-        String text = formState.get(getKeyFromRect(rect));
-        g2d.setFont(TEXT_FONT);
-        g2d.setColor(Color.decode("#495057"));
+        g2d.fill(input.getOutline());
+        boolean invalid = !isActive && validator.getVisibleError(input.getId()) != null;
+        g2d.setColor(isActive ? ACTIVE_BORDER : invalid ? ERROR_BORDER : INPUT_BORDER);
+        g2d.setStroke(isActive ? THICK_STROKE : THIN_STROKE);
+        g2d.draw(input.getOutline());
+        g2d.setStroke(THIN_STROKE);
+
+        // Draw Text, Selection and Cursor
+        TextBuffer buffer = formState.get(input.getId());
+        FieldLayout layout = layoutFor(input, isActive ? scrollStart(input, buffer) : 0);
+        int textX = rect.x + 10;
+        int textY = rect.y + (rect.height - textHeight) / 2 + textAscent;
         
         // Set a clipping region to prevent text from overflowing the input box
-        Shape oldClip = g2d.getClip();
-        g2d.clip(new Rectangle(rect.x + 10, rect.y, rect.width - 20, rect.height));
-        
-        FontMetrics fm = g2d.getFontMetrics();
-        int textY = rect.y + (rect.height - fm.getHeight()) / 2 + fm.getAscent();
-        g2d.drawString(text, rect.x + 10, textY);
-        
-        g2d.setClip(oldClip); // Restore the original clipping region
+        g2d.clipRect(rect.x + 10, rect.y, rect.width - 20, rect.height);
+
+        if (isActive && buffer.hasSelection()) {
+            int selectionX = textX + (int) layout.caretX(buffer.getSelectionStart());
+            int selectionEndX = textX + (int) layout.caretX(buffer.getSelectionEnd());
+            g2d.setColor(SELECTION_COLOR);
+            g2d.fillRect(selectionX, rect.y + 8, selectionEndX - selectionX, rect.height - 16);
+        }
+
+        g2d.setColor(INPUT_TEXT_COLOR);
+        layout.draw(g2d, textX, textY);
 
         // Draw blinking cursor
         if (isActive && cursorVisible) {
-            int textWidth = fm.stringWidth(text);
+            int caretX = textX + (int) layout.caretX(buffer.getCaret());
             g2d.setColor(Color.BLACK);
-            g2d.drawLine(rect.x + 10 + textWidth, rect.y + 8, rect.x + 10 + textWidth, rect.y + rect.height - 8);
+            g2d.drawLine(caretX, rect.y + 8, caretX, rect.y + rect.height - 8);
         }
+        
+        g2d.setClip(clip); // Restore the original clipping region
     }
     
+    /**
+     * Covers the image area with a progress bar while an upload is being processed.
+     */
+    private void drawUploadProgress(Graphics2D g2d) {
+        Rectangle area = IMAGE_AREA;
+        g2d.setColor(OVERLAY_COLOR);
+        g2d.fillRect(area.x, area.y, area.width, area.height);
+
+        int barWidth = area.width - 60;
+        int barX = area.x + 30;
+        int barY = area.y + area.height / 2 + 10;
+        g2d.setColor(INPUT_BORDER);
+        g2d.fillRect(barX, barY, barWidth, 8);
+        g2d.setColor(ACTIVE_BORDER);
+        g2d.fillRect(barX, barY, barWidth * uploadProgress / 100, 8);
+
+        g2d.setFont(LABEL_FONT);
+        drawCenteredString(g2d, "PROCESSING IMAGE... " + uploadProgress + "%",
+            new Rectangle(area.x, area.y, area.width, area.height / 2), MUTED_COLOR);
+    }
+
     // Helper to draw a string centered in a rectangle
     private void drawCenteredString(Graphics2D g2d, String text, Rectangle rect, Color color) {
         FontMetrics metrics = g2d.getFontMetrics();
@@ -341,16 +768,6 @@ class FormCanvas extends JPanel {
         g2d.drawString(text, x, y);
     }
 
-    // Helper to find the ID of a UI element from its Rectangle object
-    private String getKeyFromRect(Rectangle rect) {
-        for (Map.Entry<String, Rectangle> entry : uiElements.entrySet()) {
-            if (entry.getValue().equals(rect)) {
-                return entry.getKey();
-            }
-        }
-        return null;
-    }
-
     /**
      * Handles the back button click - closes current window and returns to dashboard
      */
@@ -410,3 +827,149 @@ class FormCanvas extends JPanel {
     }
 }
 
+/**
+ * One element of the form: an input field or a button, with its id, bounds and label.
+ */
+class FormElement {
+    enum Kind { INPUT, BUTTON }
+
+    private final String id;
+    private final Kind kind;
+    private final Rectangle bounds;
+    private final RoundRectangle2D outline;
+    private final String label;
+
+    FormElement(String id, Kind kind, Rectangle bounds, String label) {
+        this.id = id;
+        this.kind = kind;
+        this.bounds = new Rectangle(bounds);
+        this.outline = new RoundRectangle2D.Float(bounds.x, bounds.y, bounds.width, bounds.height, 10, 10);
+        this.label = label;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The element's bounds, shared rather than copied; callers must not modify them.
+     */
+    Rectangle getBounds() {
+        return bounds;
+    }
+
+    /**
+     * @return The rounded box drawn for the element; shared, so callers must not modify it.
+     */
+    RoundRectangle2D getOutline() {
+        return outline;
+    }
+
+    String getLabel() {
+        return label;
+    }
+}
+
+/**
+ * The laid-out visible part of one input field's text, starting at character start.
+ * Built once per text change or scroll; painting and caret/selection/hit-testing reuse
+ * it. Indexes are positions in the whole field.
+ */
+class FieldLayout {
+    final int start;
+    final long version; // TextBuffer version laid out
+    private final String text;
+    private final TextLayout layout; // Null for empty text, which TextLayout does not accept
+    private float[] caretPositions;   // x of each caret index, filled in lazily
+
+    FieldLayout(String text, int start, long version, Font font, FontRenderContext context) {
+        this.text = text;
+        this.start = start;
+        this.version = version;
+        this.layout = text.isEmpty() ? null : new TextLayout(text, font, context);
+    }
+
+    void draw(Graphics2D g2d, float x, float y) {
+        if (layout != null) {
+            layout.draw(g2d, x, y);
+        }
+    }
+
+    /**
+     * @return The x offset of the caret before the character at index, from the first
+     *         character shown; clamped to the laid-out part.
+     */
+    float caretX(int index) {
+        index -= start;
+        if (layout == null || index <= 0) {
+            return 0;
+        }
+        if (caretPositions == null) {
+            // Measured once per text, on first use, so blinking and arrow keys only do lookups
+            caretPositions = new float[text.length() + 1];
+            for (int i = 1; i < text.length(); i++) {
+                caretPositions[i] = layout.getCaretInfo(TextHitInfo.leading(i))[0];
+            }
+            caretPositions[text.length()] = layout.getAdvance();
+        }
+        return caretPositions[Math.min(index, text.length())];
+    }
+
+    /**
+     * @return The caret index nearest to an x offset from the start of the text.
+     */
+    int indexAt(float x) {
+        return start + ((layout == null) ? 0 : layout.hitTestChar(x, 0).getInsertionIndex());
+    }
+}
+
+/**
+ * Uniform-grid spatial index for hit-testing form elements. Each element is
+ * registered in every cell its bounds overlap, so a lookup only checks the few
+ * elements in one cell, however many elements the form has.
+ */
+class ElementGrid {
+    private final int cellSize;
+    private final Map<Long, List<FormElement>> cells = new HashMap<>();
+
+    ElementGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    void add(FormElement element) {
+        Rectangle bounds = element.getBounds();
+        int firstColumn = Math.floorDiv(bounds.x, cellSize);
+        int lastColumn = Math.floorDiv(bounds.x + bounds.width - 1, cellSize);
+        int firstRow = Math.floorDiv(bounds.y, cellSize);
+        int lastRow = Math.floorDiv(bounds.y + bounds.height - 1, cellSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                cells.computeIfAbsent(cellKey(column, row), k -> new ArrayList<>(2)).add(element);
+            }
+        }
+    }
+
+    /**
+     * @return The element containing the point, or null if there is none.
+     */
+    FormElement elementAt(int x, int y) {
+        List<FormElement> candidates = cells.get(cellKey(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize)));
+        if (candidates != null) {
+            for (FormElement element : candidates) {
+                if (element.getBounds().contains(x, y)) {
+                    return element;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long cellKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+}
+
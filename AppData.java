@@ -0,0 +1,30 @@
+import java.io.File;
+
+/**
+ * Locations of PawTrack's local data files.
+ * Everything lives under ~/.pawtrack unless the "pawtrack.data" system property points elsewhere.
+ */
+public final class AppData {
+
+    private AppData() {
+    }
+
+    /**
+     * Returns the data directory, creating it if needed.
+     */
+    public static File directory() {
+        String override = System.getProperty("pawtrack.data");
+        File dir = (override != null) ? new File(override) : new File(System.getProperty("user.home"), ".pawtrack");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Could not create data directory: " + dir);
+        }
+        return dir;
+    }
+
+    /**
+     * Returns a file inside the data directory.
+     */
+    public static File file(String name) {
+        return new File(directory(), name);
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A booked vet appointment: which vet, when, and the appointment form's details.
+ * Times are clinic wall-clock times.
+ */
+public class Appointment {
+
+    private final long id;
+    private final String vet;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Map<String, String> details;
+
+    public Appointment(long id, String vet, LocalDateTime start, LocalDateTime end, Map<String, String> details) {
+        this.id = id;
+        this.vet = vet;
+        this.start = start;
+        this.end = end;
+        this.details = Collections.unmodifiableMap(new LinkedHashMap<>(details));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getVet() {
+        return vet;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Form fields such as "petName", "ownerName" and "contactNumber".
+     */
+    public Map<String, String> getDetails() {
+        return details;
+    }
+
+    public String getDetail(String key) {
+        String value = details.get(key);
+        return (value == null) ? "" : value;
+    }
+
+    // Wall-clock minutes, used as interval bounds by the scheduler
+    static long toMinutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromMinutes(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(id);
+        out.writeUTF(vet);
+        out.writeLong(toMinutes(start));
+        out.writeLong(toMinutes(end));
+        out.writeInt(details.size());
+        for (Map.Entry<String, String> entry : details.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue() == null ? "" : entry.getValue());
+        }
+        return bytes.toByteArray();
+    }
+
+    static Appointment fromBytes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long id = in.readLong();
+        String vet = in.readUTF();
+        LocalDateTime start = fromMinutes(in.readLong());
+        LocalDateTime end = fromMinutes(in.readLong());
+        int count = in.readInt();
+        Map<String, String> details = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            details.put(in.readUTF(), in.readUTF());
+        }
+        return new Appointment(id, vet, start, end, details);
+    }
+
+    @Override
+    public String toString() {
+        return "Appointment #" + id + " with " + vet + " at " + start;
+    }
+}
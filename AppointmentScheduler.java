@@ -0,0 +1,494 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vet calendars: books appointments without double-booking a vet and finds free slots.
+ *
+ * Each vet's day sits in its own {@link IntervalTree}, so checking a new booking for
+ * overlaps costs O(log n) however full the calendar is. Days are guarded by a fixed array
+ * of striped locks chosen by hashing vet and date: two bookings for the same vet and day
+ * are checked and inserted one at a time, so both cannot win the same slot, while bookings
+ * for other vets or days almost always take a different lock and run in parallel. An
+ * appointment never spans two days (see {@link #isWithinHours}), so one lock always covers it.
+ *
+ * While a booking form is being filled in, its slot can be reserved with a short-lived
+ * {@link Hold}. Others cannot book over a live hold; an expired one is ignored and dropped
+ * the next time a booking or search touches it, so an abandoned form frees its slot.
+ * Bookings and cancellations are appended to a {@link WriteAheadLog} and replayed on startup;
+ * holds are never written down.
+ */
+public class AppointmentScheduler {
+
+    /** Clinic opening hours; appointments must fit inside them. */
+    public static final LocalTime OPENING = LocalTime.of(8, 0);
+    public static final LocalTime CLOSING = LocalTime.of(17, 0);
+    /** Free slots start on this grid, e.g. 9:00, 9:15, 9:30. */
+    public static final int SLOT_MINUTES = 15;
+    public static final Duration DEFAULT_DURATION = Duration.ofMinutes(30);
+    /** How long a hold keeps its slot unless it is confirmed or released sooner. */
+    public static final Duration HOLD_TIME = Duration.ofMinutes(5);
+
+    private static final int SEARCH_DAYS = 60; // How far ahead the slot finder looks
+    private static final byte BOOKED = 1;
+    private static final byte CANCELLED = 2;
+
+    /**
+     * Thrown when the requested time overlaps an existing booking or someone else's hold.
+     */
+    public static class SlotTakenException extends Exception {
+        private final LocalDateTime conflictStart;
+        private final LocalDateTime conflictEnd;
+        private final boolean held;
+
+        public SlotTakenException(LocalDateTime conflictStart, LocalDateTime conflictEnd, boolean held) {
+            super((held ? "Held " : "Booked ") + conflictStart + " to " + conflictEnd);
+            this.conflictStart = conflictStart;
+            this.conflictEnd = conflictEnd;
+            this.held = held;
+        }
+
+        public LocalDateTime getConflictStart() {
+            return conflictStart;
+        }
+
+        public LocalDateTime getConflictEnd() {
+            return conflictEnd;
+        }
+
+        /**
+         * @return True if the slot is only held, so it may come free again shortly.
+         */
+        public boolean isHeld() {
+            return held;
+        }
+    }
+
+    /**
+     * A short-lived reservation of a vet's time, e.g. while the booking form is filled in.
+     * Confirm it with {@link #confirm} or give it back with {@link #release}.
+     */
+    public static final class Hold {
+        private final long id; // Negative, so it never clashes with an appointment id in a calendar
+        private final String vet;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private volatile long expiresAt; // Epoch millis; 0 once confirmed or released
+
+        private Hold(long id, String vet, LocalDateTime start, LocalDateTime end, long expiresAt) {
+            this.id = id;
+            this.vet = vet;
+            this.start = start;
+            this.end = end;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getVet() {
+            return vet;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public Instant getExpiry() {
+            return Instant.ofEpochMilli(expiresAt);
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    // What occupies a stretch of a vet's day: exactly one of appointment and hold is set
+    private static final class Entry {
+        final Appointment appointment;
+        final Hold hold;
+
+        Entry(Appointment appointment, Hold hold) {
+            this.appointment = appointment;
+            this.hold = hold;
+        }
+
+        SlotTakenException toConflict() {
+            return (hold != null)
+                ? new SlotTakenException(hold.start, hold.end, true)
+                : new SlotTakenException(appointment.getStart(), appointment.getEnd(), false);
+        }
+    }
+
+    private static AppointmentScheduler defaultScheduler;
+
+    private final WriteAheadLog log;
+    private final Object[] stripes;
+    private final Map<String, IntervalTree<Entry>> days = new ConcurrentHashMap<>(); // "vet|date" -> that day's bookings
+    private final Map<Long, Appointment> byId = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong nextHoldId = new AtomicLong(-1);
+
+    public AppointmentScheduler(File logFile) throws IOException {
+        this(logFile, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripeCount Number of locks shared out among vet days, rounded up to a power
+     *                    of two; 1 serializes all bookings behind a single lock.
+     */
+    AppointmentScheduler(File logFile, int stripeCount) throws IOException {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Object[size];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        WriteAheadLog.replay(logFile, this::replay);
+        this.log = new WriteAheadLog(logFile);
+    }
+
+    /**
+     * Returns the shared scheduler in the PawTrack data directory.
+     */
+    public static synchronized AppointmentScheduler getDefault() throws IOException {
+        if (defaultScheduler == null) {
+            AppointmentScheduler scheduler = new AppointmentScheduler(AppData.file("appointments.wal"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    scheduler.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing appointment log: " + e.getMessage());
+                }
+            }));
+            defaultScheduler = scheduler;
+        }
+        return defaultScheduler;
+    }
+
+    // --- Booking ---
+
+    /**
+     * Books a vet from start for the given duration.
+     * @return A future completing with the stored appointment once it is durable, or failing
+     *         with {@link SlotTakenException} if the vet is already booked or held then, or
+     *         {@link IllegalArgumentException} if the time is outside clinic hours.
+     */
+    public CompletableFuture<Appointment> book(String vet, LocalDateTime start, Duration duration,
+                                               Map<String, String> details) {
+        LocalDateTime end = start.plus(duration);
+        if (!isWithinHours(start, end)) {
+            return CompletableFuture.failedFuture(outsideHours());
+        }
+        return reserve(vet, start, end, null, details);
+    }
+
+    /**
+     * Turns a hold into a booking. An expired hold still books if nobody has taken the
+     * slot since; confirming a hold that was already confirmed fails as a conflict.
+     * @return As for {@link #book}.
+     */
+    public CompletableFuture<Appointment> confirm(Hold hold, Map<String, String> details) {
+        return reserve(hold.vet, hold.start, hold.end, hold, details);
+    }
+
+    /**
+     * Reserves a vet's time for {@link #HOLD_TIME}, without writing anything down.
+     * @throws SlotTakenException If the vet is already booked or held then.
+     * @throws IllegalArgumentException If the time is outside clinic hours.
+     */
+    public Hold hold(String vet, LocalDateTime start, Duration duration) throws SlotTakenException {
+        return hold(vet, start, duration, HOLD_TIME);
+    }
+
+    public Hold hold(String vet, LocalDateTime start, Duration duration, Duration holdTime) throws SlotTakenException {
+        LocalDateTime end = start.plus(duration);
+        if (!isWithinHours(start, end)) {
+            throw outsideHours();
+        }
+        String key = dayKey(vet, start.toLocalDate());
+        Hold hold = new Hold(nextHoldId.getAndDecrement(), vet, start, end, System.currentTimeMillis() + holdTime.toMillis());
+        synchronized (stripeFor(key)) {
+            IntervalTree<Entry> day = dayFor(key);
+            Entry conflict = firstLiveOverlap(day, Appointment.toMinutes(start), Appointment.toMinutes(end));
+            if (conflict != null) {
+                throw conflict.toConflict();
+            }
+            day.insert(Appointment.toMinutes(start), Appointment.toMinutes(end), hold.id, new Entry(null, hold));
+        }
+        return hold;
+    }
+
+    /**
+     * Extends a hold by another {@link #HOLD_TIME}, e.g. while its form is still being
+     * filled in.
+     * @return false if the hold has already expired, been confirmed or been released; its
+     *         time may have been taken since.
+     */
+    public boolean renew(Hold hold) {
+        String key = dayKey(hold.vet, hold.start.toLocalDate());
+        synchronized (stripeFor(key)) {
+            if (hold.isExpired()) {
+                return false;
+            }
+            hold.expiresAt = System.currentTimeMillis() + HOLD_TIME.toMillis();
+            return true;
+        }
+    }
+
+    /**
+     * Gives a hold's time back straight away, e.g. when the form is cleared.
+     * Does nothing if the hold was already confirmed, released or dropped.
+     */
+    public void release(Hold hold) {
+        String key = dayKey(hold.vet, hold.start.toLocalDate());
+        synchronized (stripeFor(key)) {
+            hold.expiresAt = 0;
+            dayFor(key).remove(Appointment.toMinutes(hold.start), hold.id);
+        }
+    }
+
+    /**
+     * Cancels an appointment, freeing its slot once the cancellation is durable.
+     * @return A future completing with false if there was no such appointment.
+     */
+    public CompletableFuture<Boolean> cancel(long id) {
+        Appointment appointment = byId.get(id); // Only bookings already on disk
+        if (appointment == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(8).putLong(id);
+        return log.append(record(CANCELLED, payload.array()), () -> release(appointment)).thenApply(size -> true);
+    }
+
+    private CompletableFuture<Appointment> reserve(String vet, LocalDateTime start, LocalDateTime end, Hold hold,
+                                                   Map<String, String> details) {
+        String key = dayKey(vet, start.toLocalDate());
+        long from = Appointment.toMinutes(start);
+        long to = Appointment.toMinutes(end);
+        Appointment appointment;
+        synchronized (stripeFor(key)) {
+            IntervalTree<Entry> day = dayFor(key);
+            if (hold != null) {
+                hold.expiresAt = 0;
+                day.remove(from, hold.id); // Our own hold must not count as a conflict
+            }
+            Entry conflict = firstLiveOverlap(day, from, to);
+            if (conflict != null) {
+                return CompletableFuture.failedFuture(conflict.toConflict());
+            }
+            appointment = new Appointment(nextId.getAndIncrement(), vet, start, end, details);
+            occupy(day, appointment);
+        }
+
+        byte[] payload;
+        try {
+            payload = record(BOOKED, appointment.toBytes());
+        } catch (IOException e) {
+            release(appointment);
+            return CompletableFuture.failedFuture(e);
+        }
+        // Findable by id, and so cancellable, only once the booking is logged
+        return log.append(payload, () -> byId.put(appointment.getId(), appointment)).handle((size, error) -> {
+            if (error != null) {
+                release(appointment); // Not durable, so free the slot again
+                throw new CompletionException(error);
+            }
+            return appointment;
+        });
+    }
+
+    // --- Queries ---
+
+    /**
+     * Finds the next free slots for a vet, on the {@link #SLOT_MINUTES} grid and inside
+     * clinic hours, looking up to {@value #SEARCH_DAYS} days ahead.
+     * @return Up to count start times, earliest first; consecutive slots do not overlap.
+     */
+    public List<LocalDateTime> findFreeSlots(String vet, LocalDateTime from, Duration duration, int count) {
+        List<LocalDateTime> slots = new ArrayList<>(count);
+        long minutes = duration.toMinutes();
+        LocalDateTime candidate = roundUpToSlot(from);
+        LocalDateTime horizon = from.plusDays(SEARCH_DAYS);
+        while (slots.size() < count && candidate.isBefore(horizon)) {
+            LocalDate date = candidate.toLocalDate();
+            if (candidate.toLocalTime().isBefore(OPENING)) {
+                candidate = date.atTime(OPENING);
+            }
+            String key = dayKey(vet, date);
+            synchronized (stripeFor(key)) {
+                IntervalTree<Entry> day = days.get(key);
+                // Each day is searched under its own lock; nothing is reserved, so a slot
+                // found here can still be taken before it is booked
+                while (slots.size() < count && isWithinHours(candidate, candidate.plusMinutes(minutes))) {
+                    long start = Appointment.toMinutes(candidate);
+                    Entry conflict = (day == null) ? null : firstLiveOverlap(day, start, start + minutes);
+                    if (conflict == null) {
+                        slots.add(candidate);
+                        candidate = roundUpToSlot(candidate.plusMinutes(minutes));
+                    } else {
+                        candidate = roundUpToSlot(end(conflict)); // Jump past the whole booking
+                    }
+                }
+            }
+            if (slots.size() < count) {
+                candidate = date.plusDays(1).atTime(OPENING);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * @return A vet's appointments overlapping [from, to), earliest first.
+     */
+    public List<Appointment> findAppointments(String vet, LocalDateTime from, LocalDateTime to) {
+        List<Appointment> found = new ArrayList<>();
+        long start = Appointment.toMinutes(from);
+        long end = Appointment.toMinutes(to);
+        for (LocalDate date = from.toLocalDate(); date.atStartOfDay().isBefore(to); date = date.plusDays(1)) {
+            String key = dayKey(vet, date);
+            IntervalTree<Entry> day = days.get(key);
+            if (day == null) {
+                continue;
+            }
+            synchronized (stripeFor(key)) {
+                day.forEachOverlap(start, end, entry -> {
+                    if (entry.appointment != null) {
+                        found.add(entry.appointment);
+                    }
+                });
+            }
+        }
+        return found;
+    }
+
+    public Appointment findById(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return Every booked appointment, in id order.
+     */
+    public List<Appointment> findAll() {
+        List<Appointment> all = new ArrayList<>(byId.values());
+        all.sort(Comparator.comparingLong(Appointment::getId));
+        return all;
+    }
+
+    public int count() {
+        return byId.size();
+    }
+
+    public void close() throws IOException {
+        log.close();
+    }
+
+    public static boolean isWithinHours(LocalDateTime start, LocalDateTime end) {
+        return end.isAfter(start)
+            && start.toLocalDate().equals(end.toLocalDate())
+            && !start.toLocalTime().isBefore(OPENING)
+            && !end.toLocalTime().isAfter(CLOSING);
+    }
+
+    // --- Internals ---
+
+    private static String dayKey(String vet, LocalDate date) {
+        return vet + "|" + date;
+    }
+
+    private Object stripeFor(String dayKey) {
+        int hash = dayKey.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private IntervalTree<Entry> dayFor(String dayKey) {
+        return days.computeIfAbsent(dayKey, _ -> new IntervalTree<>());
+    }
+
+    /**
+     * Finds the earliest booking or live hold overlapping [start, end), dropping expired
+     * holds in the way. Caller holds the day's stripe.
+     */
+    private static Entry firstLiveOverlap(IntervalTree<Entry> day, long start, long end) {
+        long now = System.currentTimeMillis();
+        Entry conflict;
+        while ((conflict = day.firstOverlap(start, end)) != null && conflict.hold != null && now >= conflict.hold.expiresAt) {
+            day.remove(Appointment.toMinutes(conflict.hold.start), conflict.hold.id);
+        }
+        return conflict;
+    }
+
+    private static LocalDateTime end(Entry entry) {
+        return (entry.hold != null) ? entry.hold.end : entry.appointment.getEnd();
+    }
+
+    // Caller holds the day's stripe (or is the constructor)
+    private static void occupy(IntervalTree<Entry> day, Appointment appointment) {
+        day.insert(Appointment.toMinutes(appointment.getStart()),
+            Appointment.toMinutes(appointment.getEnd()), appointment.getId(), new Entry(appointment, null));
+    }
+
+    private void release(Appointment appointment) {
+        String key = dayKey(appointment.getVet(), appointment.getStart().toLocalDate());
+        synchronized (stripeFor(key)) {
+            dayFor(key).remove(Appointment.toMinutes(appointment.getStart()), appointment.getId());
+            byId.remove(appointment.getId());
+        }
+    }
+
+    private static IllegalArgumentException outsideHours() {
+        return new IllegalArgumentException("Appointments must be between " + OPENING + " and " + CLOSING + " on one day");
+    }
+
+    private void replay(byte[] payload) {
+        try {
+            if (payload[0] == BOOKED) {
+                Appointment appointment = Appointment.fromBytes(Arrays.copyOfRange(payload, 1, payload.length));
+                occupy(dayFor(dayKey(appointment.getVet(), appointment.getStart().toLocalDate())), appointment);
+                byId.put(appointment.getId(), appointment);
+                nextId.accumulateAndGet(appointment.getId() + 1, Math::max);
+            } else if (payload[0] == CANCELLED) {
+                Appointment appointment = byId.get(ByteBuffer.wrap(payload, 1, 8).getLong());
+                if (appointment != null) {
+                    release(appointment);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Skipping unreadable appointment record: " + e.getMessage());
+        }
+    }
+
+    private static byte[] record(byte type, byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 1);
+        bytes.write(type);
+        bytes.write(body, 0, body.length);
+        return bytes.toByteArray();
+    }
+
+    private static LocalDateTime roundUpToSlot(LocalDateTime time) {
+        LocalDateTime minute = time.withSecond(0).withNano(0);
+        if (minute.isBefore(time)) {
+            minute = minute.plusMinutes(1);
+        }
+        int overshoot = minute.getMinute() % SLOT_MINUTES;
+        return (overshoot == 0) ? minute : minute.plusMinutes(SLOT_MINUTES - overshoot);
+    }
+}
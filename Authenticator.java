@@ -0,0 +1,282 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks credentials and registers accounts.
+ *
+ * Password hashing is deliberately slow and memory-hungry, so it never runs on the caller's
+ * thread: it goes to a small dedicated pool with a bounded queue. A burst of logins at shift
+ * change queues up there instead of stalling the UI, and once the queue is full further
+ * attempts fail fast with {@link RejectedExecutionException} rather than piling up memory.
+ * Unknown usernames are checked against a dummy hash so they take as long as wrong passwords.
+ *
+ * {@link #login} adds sessions and throttling on top: a user signing in again at the same
+ * workstation is checked against their {@link SessionCache} session without hashing, and
+ * every attempt, resumed or not, is limited per user and per workstation by a
+ * {@link LoginRateLimiter}. A wrong password ends the session, so further guesses pay for
+ * the full check.
+ */
+public final class Authenticator {
+
+    // Each hash holds 16 MiB of scratch memory, so a couple of workers is plenty
+    private static final int HASH_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int HASH_QUEUE = 32;
+    private static final long SLOW_VERIFY_MILLIS = 1000;
+    private static final long SLOW_REPORT_INTERVAL_MILLIS = 30_000; // One warning per burst, not one per login
+
+    private static Authenticator defaultAuthenticator;
+
+    private final AccountStore accounts;
+    private final PasswordHasher hasher;
+    private final SessionCache sessions = new SessionCache();
+    private final LoginRateLimiter limiter = new LoginRateLimiter();
+    private final ThreadPoolExecutor pool;
+    private final LatencyStats verifyLatency = new LatencyStats();
+    private final LatencyStats hashLatency = new LatencyStats();
+    private volatile String dummyHash; // Only touched on the hashing threads
+    private volatile long lastSlowReport = 0;
+
+    public Authenticator(AccountStore accounts, PasswordHasher hasher) {
+        this.accounts = accounts;
+        this.hasher = hasher;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(HASH_THREADS, HASH_THREADS, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(HASH_QUEUE), runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Returns the shared authenticator over {@link AccountStore#getDefault()}.
+     */
+    public static synchronized Authenticator getDefault() throws IOException {
+        if (defaultAuthenticator == null) {
+            defaultAuthenticator = new Authenticator(AccountStore.getDefault(), new PasswordHasher());
+        }
+        return defaultAuthenticator;
+    }
+
+    /**
+     * Signs a user in at a workstation, resuming their session there if it is still live.
+     * The password array is cleared afterwards.
+     * @return A future completing with the session, or with null if the credentials are wrong.
+     *         It fails with {@link LoginRateLimiter.ThrottledException} when there were too
+     *         many attempts, or {@link RejectedExecutionException} when too many checks are queued.
+     */
+    public CompletableFuture<SessionCache.Session> login(String username, String workstation, char[] password) {
+        long wait = limiter.tryAcquire(username, workstation);
+        if (wait > 0) {
+            Arrays.fill(password, '\0');
+            return CompletableFuture.failedFuture(new LoginRateLimiter.ThrottledException(wait));
+        }
+        SessionCache.Session resumed = sessions.resume(username, workstation, password);
+        if (resumed != null) {
+            Arrays.fill(password, '\0');
+            limiter.succeeded(username);
+            return CompletableFuture.completedFuture(resumed); // No hash
+        }
+        // The token taken above pays for the full check too
+        char[] sessionCopy = password.clone(); // authenticate() clears the original
+        return authenticate(username, password).thenApply(account -> {
+            if (account == null) {
+                return null;
+            }
+            limiter.succeeded(username);
+            return sessions.open(account, workstation, sessionCopy);
+        }).whenComplete((session, error) -> Arrays.fill(sessionCopy, '\0'));
+    }
+
+    /**
+     * Ends a session, so the next login at that workstation needs a full password check.
+     */
+    public void logout(SessionCache.Session session) {
+        sessions.invalidate(session);
+    }
+
+    /**
+     * Checks a username and password in the background. The password array is cleared afterwards.
+     * @return A future completing with the account, or with null if the credentials are wrong.
+     *         It fails with {@link RejectedExecutionException} when too many checks are queued.
+     */
+    public CompletableFuture<Account> authenticate(String username, char[] password) {
+        long queuedAt = System.nanoTime();
+        return submit(password, () -> {
+            Account account = accounts.find(username);
+            long hashStart = System.nanoTime();
+            boolean valid = hasher.verify(password, account != null ? account.getPasswordHash() : dummyHash());
+            hashLatency.record(System.nanoTime() - hashStart);
+
+            long elapsed = System.nanoTime() - queuedAt;
+            verifyLatency.record(elapsed);
+            long now = System.currentTimeMillis();
+            if (elapsed > TimeUnit.MILLISECONDS.toNanos(SLOW_VERIFY_MILLIS)
+                    && now - lastSlowReport > SLOW_REPORT_INTERVAL_MILLIS) {
+                lastSlowReport = now;
+                System.err.println("Slow credential check (" + TimeUnit.NANOSECONDS.toMillis(elapsed)
+                    + " ms, " + pool.getQueue().size() + " queued): " + verifyLatency.snapshot());
+            }
+            if (account == null || !valid) {
+                return null;
+            }
+            if (hasher.needsRehash(account.getPasswordHash())) {
+                // Cost parameters were raised since this password was set
+                account = account.withPasswordHash(hasher.hash(password));
+                accounts.update(account);
+            }
+            return account;
+        });
+    }
+
+    /**
+     * Hashes the password and stores a new account. The password array is cleared afterwards.
+     * @return A future completing once the account is durable, or failing with
+     *         {@link AccountStore.UsernameTakenException} or {@link AccountStore.EmailTakenException}.
+     */
+    public CompletableFuture<Account> register(String username, String fullName, String contactNumber,
+                                               String email, char[] password) {
+        // Checked again when storing; this just avoids hashing for a request that will fail
+        if (accounts.isUsernameTaken(username)) {
+            Arrays.fill(password, '\0');
+            return CompletableFuture.failedFuture(new AccountStore.UsernameTakenException(username));
+        }
+        if (accounts.isEmailTaken(email)) {
+            Arrays.fill(password, '\0');
+            return CompletableFuture.failedFuture(new AccountStore.EmailTakenException(email));
+        }
+        return submit(password, () -> new Account(username, fullName, contactNumber, email,
+                hasher.hash(password), System.currentTimeMillis()))
+            .thenCompose(accounts::create);
+    }
+
+    /**
+     * Time from submitting a credential check to its result, including time spent queued.
+     */
+    public LatencyStats.Snapshot getVerifyLatency() {
+        return verifyLatency.snapshot();
+    }
+
+    /**
+     * Time spent in the hash function alone, to tell a slow KDF from a backed-up queue.
+     */
+    public LatencyStats.Snapshot getHashLatency() {
+        return hashLatency.snapshot();
+    }
+
+    private interface HashTask<T> {
+        T run() throws IOException;
+    }
+
+    private <T> CompletableFuture<T> submit(char[] password, HashTask<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                try {
+                    result.complete(task.run());
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    Arrays.fill(password, '\0');
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Arrays.fill(password, '\0');
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private String dummyHash() {
+        if (dummyHash == null) {
+            dummyHash = hasher.hash("not a real password".toCharArray());
+        }
+        return dummyHash;
+    }
+
+    /**
+     * @return The underlying cause of a failed future's exception.
+     */
+    static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+}
+
+/**
+ * Keeps the most recent latency samples and summarizes them. Thread-safe.
+ */
+class LatencyStats {
+
+    private static final int WINDOW = 256;
+
+    private final long[] samples = new long[WINDOW];
+    private long count = 0;
+
+    /**
+     * Percentiles over the recent window, in milliseconds.
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final double p50;
+        private final double p95;
+        private final double max;
+
+        Snapshot(long count, double p50, double p95, double max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getP50Millis() {
+            return p50;
+        }
+
+        public double getP95Millis() {
+            return p95;
+        }
+
+        public double getMaxMillis() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d p50=%.1f ms p95=%.1f ms max=%.1f ms", count, p50, p95, max);
+        }
+    }
+
+    public synchronized void record(long nanos) {
+        samples[(int) (count++ % WINDOW)] = nanos;
+    }
+
+    public Snapshot snapshot() {
+        long[] window;
+        long total;
+        synchronized (this) {
+            total = count;
+            window = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+        }
+        if (window.length == 0) {
+            return new Snapshot(0, 0, 0, 0);
+        }
+        Arrays.sort(window);
+        return new Snapshot(total, toMillis(window[(window.length - 1) / 2]),
+            toMillis(window[(int) Math.ceil(window.length * 0.95) - 1]), toMillis(window[window.length - 1]));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,316 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for photos and other binary files.
+ *
+ * Each blob is stored once under the SHA-256 of its bytes, in directories sharded by
+ * the first two hash bytes (blobs/ab/cd/abcd...), so storing the same photo again is
+ * free and any number of records can point at it. Records refer to blobs with
+ * "blob:&lt;hash&gt;" references, which {@link ImageCache} understands. Blobs are never
+ * modified once written; reads are served from memory-mapped files. Files derived from a
+ * blob (e.g. thumbnails) are kept beside it as &lt;hash&gt;.&lt;name&gt;.
+ */
+public final class BlobStore {
+
+    public static final String REF_PREFIX = "blob:";
+
+    private static final int MAPPED_CACHE_SIZE = 128;
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern DERIVED_NAME_PATTERN = Pattern.compile("[a-z0-9]+");
+
+    private static BlobStore defaultStore;
+
+    private final Path root;
+
+    // Recently read blobs stay mapped; the OS page cache does the rest
+    private final Map<String, MappedByteBuffer> mapped = new LinkedHashMap<String, MappedByteBuffer>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MappedByteBuffer> eldest) {
+            return size() > MAPPED_CACHE_SIZE;
+        }
+    };
+
+    public BlobStore(File root) throws IOException {
+        this.root = root.toPath();
+        Files.createDirectories(this.root);
+    }
+
+    /**
+     * Returns the shared store in the PawTrack data directory.
+     */
+    public static synchronized BlobStore getDefault() throws IOException {
+        if (defaultStore == null) {
+            defaultStore = new BlobStore(AppData.file("blobs"));
+        }
+        return defaultStore;
+    }
+
+    // --- References ---
+
+    public static boolean isRef(String path) {
+        return path != null && path.startsWith(REF_PREFIX);
+    }
+
+    public static String toRef(String hash) {
+        return REF_PREFIX + hash;
+    }
+
+    /**
+     * @return The hash a "blob:" reference points at.
+     */
+    public static String hashOf(String ref) {
+        return ref.substring(REF_PREFIX.length());
+    }
+
+    // --- Writing ---
+
+    /**
+     * Stores bytes, or finds the identical blob already stored.
+     * @return The blob's hash.
+     */
+    public String put(byte[] data) throws IOException {
+        String hash = toHex(newDigest().digest(data));
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            return hash; // Deduplicated
+        }
+        publish(writeTemp(target, data), target);
+        return hash;
+    }
+
+    /**
+     * Stores a file's contents, hashing while copying so the file is read only once.
+     * @return The blob's hash.
+     */
+    public String put(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        Path temp = Files.createTempFile(root, ".blob-", ".tmp"); // Hash is unknown until copied
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest);
+             OutputStream out = Files.newOutputStream(temp)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        String hash = toHex(digest.digest());
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            Files.delete(temp); // Deduplicated
+        } else {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            publish(temp, target);
+        }
+        return hash;
+    }
+
+    /**
+     * Stores a file and returns a reference to it, or returns the path unchanged if the
+     * file does not exist (e.g. sample data pointing at a missing image).
+     */
+    public String importFile(String path) {
+        File file = new File(path);
+        if (!file.isFile()) {
+            return path;
+        }
+        try {
+            return toRef(put(file));
+        } catch (IOException e) {
+            System.err.println("Could not store " + path + ": " + e.getMessage());
+            return path;
+        }
+    }
+
+    // --- Reading ---
+
+    public boolean contains(String hash) {
+        return Files.exists(pathFor(hash));
+    }
+
+    /**
+     * Returns a read-only view of a blob's bytes, backed by a memory-mapped file.
+     * Each call returns an independent buffer positioned at 0.
+     */
+    public ByteBuffer read(String hash) throws IOException {
+        return map(hash, pathFor(hash));
+    }
+
+    /**
+     * Opens a blob for streaming reads, e.g. for ImageIO.
+     */
+    public InputStream openStream(String hash) throws IOException {
+        return streamOf(read(hash));
+    }
+
+    /**
+     * Opens what a reference points at: "blob:&lt;hash&gt;" or "blob:&lt;hash&gt;/&lt;derived name&gt;".
+     */
+    public InputStream openRef(String ref) throws IOException {
+        String id = hashOf(ref);
+        int slash = id.indexOf('/');
+        if (slash < 0) {
+            return openStream(id);
+        }
+        return streamOf(map(id, derivedPath(id.substring(0, slash), id.substring(slash + 1))));
+    }
+
+    // --- Derived files ---
+
+    /**
+     * Stores a file derived from a blob, such as a resized rendition, next to it.
+     * Derived files are keyed by their source blob and a name rather than by content.
+     */
+    public void putDerived(String hash, String name, byte[] data) throws IOException {
+        Path target = derivedPath(hash, name);
+        publish(writeTemp(target, data), target);
+    }
+
+    public boolean hasDerived(String hash, String name) {
+        return Files.exists(derivedPath(hash, name));
+    }
+
+    /**
+     * @return A reference to a derived file, readable through {@link #openRef}.
+     */
+    public static String toDerivedRef(String hash, String name) {
+        return REF_PREFIX + hash + "/" + name;
+    }
+
+    private ByteBuffer map(String cacheKey, Path path) throws IOException {
+        MappedByteBuffer buffer;
+        synchronized (mapped) {
+            buffer = mapped.get(cacheKey);
+        }
+        if (buffer == null) {
+            if (!Files.exists(path)) {
+                throw new IOException("No such blob: " + cacheKey);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            synchronized (mapped) {
+                mapped.put(cacheKey, buffer);
+            }
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static InputStream streamOf(ByteBuffer buffer) {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, buffer.remaining());
+                buffer.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+
+    // --- Layout ---
+
+    Path pathFor(String hash) {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path derivedPath(String hash, String name) {
+        if (!DERIVED_NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a derived file name: " + name);
+        }
+        Path blob = pathFor(hash);
+        return blob.resolveSibling(blob.getFileName() + "." + name);
+    }
+
+    private Path createTemp(Path target) throws IOException {
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, ".blob-", ".tmp");
+    }
+
+    /**
+     * Writes bytes to a temp file next to the target and syncs them. The temp file is
+     * deleted if that fails, e.g. when the writing thread is interrupted.
+     */
+    private Path writeTemp(Path target, byte[] data) throws IOException {
+        Path temp = createTemp(target);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Moves a fully written temp file into place. Another writer may have stored the
+     * same content meanwhile, which is fine: the bytes are identical.
+     */
+    private void publish(Path temp, Path target) throws IOException {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Required on every JVM
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress harness for {@link AppointmentScheduler}; run it with "java BookingStressTest".
+ *
+ * First it measures hold/release throughput across many vets and days at increasing thread
+ * counts, once behind a single lock and once with the scheduler's striped locks, so the two
+ * scaling curves can be compared. Then it has every thread fight over a few vets' days with
+ * a mix of direct bookings, confirmed holds, released holds and abandoned holds that expire,
+ * and checks that no vet ended up double-booked, before and after replaying the log.
+ * Exits with status 1 if any check fails.
+ */
+public class BookingStressTest {
+
+    private static final int VETS = 16;
+    private static final int DAYS = 20;
+    private static final long MEASURE_MILLIS = 1000;
+    private static final int CONTENDED_VETS = 2;
+    private static final int CONTENDED_DAYS = 2;
+    private static final int CONTENDED_ATTEMPTS = 2000; // Per thread
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(1);
+    private static final int SLOTS_PER_DAY = (int) (Duration.between(AppointmentScheduler.OPENING,
+        AppointmentScheduler.CLOSING).toMinutes() / AppointmentScheduler.SLOT_MINUTES);
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads <= 2 * cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        File directory = Files.createTempDirectory("booking-stress").toFile();
+
+        measure(new File(directory, "warmup.wal"), 4 * cores, cores); // Let the JIT settle first
+        System.out.println("Hold/release throughput, " + VETS + " vets x " + DAYS + " days, " + cores + " cores");
+        System.out.printf("%8s %16s %16s%n", "threads", "single lock", "striped");
+        for (int threads : threadCounts) {
+            double single = measure(new File(directory, "single-" + threads + ".wal"), 1, threads);
+            double striped = measure(new File(directory, "striped-" + threads + ".wal"), 4 * cores, threads);
+            System.out.printf("%8d %14.0f/s %14.0f/s%n", threads, single, striped);
+        }
+
+        boolean ok = contend(new File(directory, "contended.wal"), Math.max(4, 2 * cores));
+        System.out.println(ok ? "PASS" : "FAIL");
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * @return Hold-and-release pairs per second over random vets, days and slots.
+     */
+    private static double measure(File logFile, int stripes, int threads) throws Exception {
+        AppointmentScheduler scheduler = new AppointmentScheduler(logFile, stripes);
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                try {
+                    start.await();
+                    long deadline = System.nanoTime() + MEASURE_MILLIS * 1_000_000;
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            AppointmentScheduler.Hold hold = scheduler.hold("Vet " + random.nextInt(VETS),
+                                randomSlot(random, DAYS), AppointmentScheduler.DEFAULT_DURATION);
+                            scheduler.release(hold);
+                        } catch (AppointmentScheduler.SlotTakenException e) {
+                            // Another thread holds it right now; still a completed attempt
+                        }
+                        count++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                operations.addAndGet(count);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        scheduler.close();
+        return operations.get() * 1000.0 / MEASURE_MILLIS;
+    }
+
+    /**
+     * Has every thread book the same few vet days at once, then checks the calendars.
+     * @return True if nothing was double-booked and the log replays to the same bookings.
+     */
+    private static boolean contend(File logFile, int threads) throws Exception {
+        AppointmentScheduler scheduler = new AppointmentScheduler(logFile);
+        ConcurrentLinkedQueue<CompletableFuture<Appointment>> bookings = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int attempt = 0; attempt < CONTENDED_ATTEMPTS; attempt++) {
+                    String vet = "Vet " + random.nextInt(CONTENDED_VETS);
+                    LocalDateTime slot = randomSlot(random, CONTENDED_DAYS);
+                    Duration duration = Duration.ofMinutes(AppointmentScheduler.SLOT_MINUTES * (1 + random.nextInt(3)));
+                    if (!AppointmentScheduler.isWithinHours(slot, slot.plus(duration))) {
+                        continue;
+                    }
+                    try {
+                        switch (random.nextInt(4)) {
+                            case 0 -> bookings.add(scheduler.book(vet, slot, duration, Map.of()));
+                            case 1 -> bookings.add(scheduler.confirm(scheduler.hold(vet, slot, duration), Map.of()));
+                            case 2 -> scheduler.release(scheduler.hold(vet, slot, duration));
+                            default -> scheduler.hold(vet, slot, duration, Duration.ofMillis(1)); // Abandoned
+                        }
+                    } catch (AppointmentScheduler.SlotTakenException e) {
+                        // Lost the race, as most attempts should
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int booked = 0;
+        for (CompletableFuture<Appointment> booking : bookings) {
+            if (booking.handle((appointment, error) -> error == null).join()) {
+                booked++;
+            }
+        }
+        boolean ok = check("live", scheduler.findAll(), booked);
+        scheduler.close();
+
+        AppointmentScheduler replayed = new AppointmentScheduler(logFile);
+        ok &= check("replayed", replayed.findAll(), booked);
+        replayed.close();
+        System.out.println(threads + " threads made " + threads * CONTENDED_ATTEMPTS + " attempts on "
+            + CONTENDED_VETS * CONTENDED_DAYS + " vet days; " + booked + " booked");
+        return ok;
+    }
+
+    private static boolean check(String label, List<Appointment> appointments, int expected) {
+        boolean ok = true;
+        if (appointments.size() != expected) {
+            System.out.println(label + ": expected " + expected + " appointments, found " + appointments.size());
+            ok = false;
+        }
+        List<Appointment> sorted = new ArrayList<>(appointments);
+        sorted.sort(Comparator.comparing(Appointment::getVet).thenComparing(Appointment::getStart));
+        for (int i = 1; i < sorted.size(); i++) {
+            Appointment previous = sorted.get(i - 1);
+            Appointment next = sorted.get(i);
+            if (previous.getVet().equals(next.getVet()) && next.getStart().isBefore(previous.getEnd())) {
+                System.out.println(label + ": double-booked " + previous + " and " + next);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static LocalDateTime randomSlot(ThreadLocalRandom random, int days) {
+        return FIRST_DAY.plusDays(random.nextInt(days)).atTime(AppointmentScheduler.OPENING)
+            .plusMinutes((long) AppointmentScheduler.SLOT_MINUTES * random.nextInt(SLOTS_PER_DAY - 1));
+    }
+}
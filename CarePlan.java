@@ -0,0 +1,117 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Period;
+
+/**
+ * A recurring piece of care for one pet, e.g. a yearly rabies booster: what it is, which
+ * vet gives it, how often, and when it is next due.
+ */
+public class CarePlan {
+
+    private final long id;
+    private final String kind;
+    private final String petName;
+    private final String ownerName;
+    private final String contactNumber;
+    private final String vet;
+    private final Period interval;
+    private final LocalTime preferredTime;
+    private final LocalDate nextDue;
+
+    public CarePlan(long id, String kind, String petName, String ownerName, String contactNumber,
+                    String vet, Period interval, LocalTime preferredTime, LocalDate nextDue) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("A care plan must repeat: " + interval);
+        }
+        this.id = id;
+        this.kind = kind;
+        this.petName = petName;
+        this.ownerName = ownerName;
+        this.contactNumber = contactNumber;
+        this.vet = vet;
+        this.interval = interval;
+        this.preferredTime = preferredTime;
+        this.nextDue = nextDue;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * What is due, e.g. "Rabies booster" or "Check-up".
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    public String getPetName() {
+        return petName;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public String getVet() {
+        return vet;
+    }
+
+    public Period getInterval() {
+        return interval;
+    }
+
+    /**
+     * The time of day follow-up appointments are booked at when the vet is free.
+     */
+    public LocalTime getPreferredTime() {
+        return preferredTime;
+    }
+
+    public LocalDate getNextDue() {
+        return nextDue;
+    }
+
+    CarePlan withId(long newId) {
+        return new CarePlan(newId, kind, petName, ownerName, contactNumber, vet, interval, preferredTime, nextDue);
+    }
+
+    CarePlan withNextDue(LocalDate due) {
+        return new CarePlan(id, kind, petName, ownerName, contactNumber, vet, interval, preferredTime, due);
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(id);
+        out.writeUTF(kind);
+        out.writeUTF(petName);
+        out.writeUTF(ownerName);
+        out.writeUTF(contactNumber);
+        out.writeUTF(vet);
+        out.writeUTF(interval.toString());
+        out.writeInt(preferredTime.toSecondOfDay());
+        out.writeLong(nextDue.toEpochDay());
+        return bytes.toByteArray();
+    }
+
+    static CarePlan fromBytes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        return new CarePlan(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+            Period.parse(in.readUTF()), LocalTime.ofSecondOfDay(in.readInt()), LocalDate.ofEpochDay(in.readLong()));
+    }
+
+    @Override
+    public String toString() {
+        return kind + " for " + petName + " every " + interval + ", next due " + nextDue;
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Recurring care plans (boosters, check-ups) and the reminders they generate.
+ *
+ * Each plan has one timer in a {@link TimerWheel}, set {@value #REMIND_DAYS_BEFORE} days
+ * before its next due date, so scheduling a plan and firing its reminder cost O(1) however
+ * many plans a shelter has, and nothing scans the plans to find the due ones. A single
+ * daemon thread advances the wheel once per tick. When a reminder fires, the plan's vet is
+ * booked at the first free slot from the due date on, listeners are told, and the plan
+ * moves on to its next due date.
+ *
+ * Plans are appended to a {@link WriteAheadLog} and replayed on startup; a plan whose
+ * reminder fell due while PawTrack was closed fires on the first tick.
+ */
+public class CareReminders {
+
+    public static final int REMIND_DAYS_BEFORE = 7;
+
+    private static final Duration TICK = Duration.ofMinutes(1);
+    private static final byte SAVED = 1;
+    private static final byte REMOVED = 2;
+
+    /**
+     * A plan's visit coming up, with the appointment booked for it (null if none could be).
+     */
+    public static final class Reminder {
+        private final CarePlan plan;
+        private final Appointment appointment;
+
+        Reminder(CarePlan plan, Appointment appointment) {
+            this.plan = plan;
+            this.appointment = appointment;
+        }
+
+        /**
+         * @return The plan as it was when the reminder fired, i.e. with the due date reminded of.
+         */
+        public CarePlan getPlan() {
+            return plan;
+        }
+
+        public Appointment getAppointment() {
+            return appointment;
+        }
+
+        @Override
+        public String toString() {
+            String what = plan.getKind() + " for " + plan.getPetName() + " is due " + plan.getNextDue();
+            return (appointment == null)
+                ? what + "; " + plan.getVet() + " had no free time, please book it by hand"
+                : what + "; booked with " + appointment.getVet() + " on " + appointment.getStart().toLocalDate()
+                    + " at " + appointment.getStart().toLocalTime();
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Called on the reminder thread; UI listeners must hop to the EDT.
+         */
+        void reminderDue(Reminder reminder);
+    }
+
+    private static CareReminders defaultReminders;
+
+    private final WriteAheadLog log;
+    private final AppointmentScheduler scheduler;
+    private final Map<Long, CarePlan> plans = new HashMap<>();
+    private final Map<String, Long> byPetAndKind = new HashMap<>(); // One plan per pet and kind of care
+    private final Map<Long, TimerWheel.Timeout<CarePlan>> timers = new HashMap<>();
+    private final TimerWheel<CarePlan> wheel; // Items are the plans as scheduled, not their ids
+    private final List<Reminder> pending = new ArrayList<>(); // Fired and not yet dismissed
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread ticker;
+    private long nextId = 1;
+
+    /**
+     * @param tick How often due reminders are looked for; also their precision.
+     */
+    public CareReminders(File logFile, AppointmentScheduler scheduler, Duration tick) throws IOException {
+        this.scheduler = scheduler;
+        this.wheel = new TimerWheel<>(tick, System.currentTimeMillis());
+        WriteAheadLog.replay(logFile, this::replay);
+        for (CarePlan plan : plans.values()) {
+            schedule(plan);
+        }
+        this.log = new WriteAheadLog(logFile);
+        this.ticker = new Thread(this::run, "care-reminders");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Returns the shared reminders in the PawTrack data directory.
+     */
+    public static synchronized CareReminders getDefault() throws IOException {
+        if (defaultReminders == null) {
+            CareReminders reminders = new CareReminders(AppData.file("care-plans.wal"),
+                AppointmentScheduler.getDefault(), TICK);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    reminders.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing care plan log: " + e.getMessage());
+                }
+            }));
+            defaultReminders = reminders;
+        }
+        return defaultReminders;
+    }
+
+    // --- Plans ---
+
+    /**
+     * Adds a plan, or replaces the pet's existing plan for the same kind of care.
+     * @return A future completing with the stored plan once it is durable.
+     */
+    public synchronized CompletableFuture<CarePlan> add(CarePlan plan) {
+        Long existing = byPetAndKind.get(key(plan));
+        CarePlan stored = plan.withId(existing != null ? existing : nextId++);
+        index(stored);
+        schedule(stored);
+        return save(stored).thenApply(size -> stored);
+    }
+
+    /**
+     * @return A future completing with false if there was no such plan.
+     */
+    public synchronized CompletableFuture<Boolean> remove(long id) {
+        CarePlan plan = plans.remove(id);
+        if (plan == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        byPetAndKind.remove(key(plan));
+        TimerWheel.Timeout<CarePlan> timer = timers.remove(id);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(8).putLong(id);
+        return log.append(record(REMOVED, payload.array())).thenApply(size -> true);
+    }
+
+    public synchronized CarePlan findById(long id) {
+        return plans.get(id);
+    }
+
+    /**
+     * @return Every plan, soonest due first.
+     */
+    public synchronized List<CarePlan> findAll() {
+        List<CarePlan> all = new ArrayList<>(plans.values());
+        all.sort(Comparator.comparing(CarePlan::getNextDue));
+        return all;
+    }
+
+    public synchronized int count() {
+        return plans.size();
+    }
+
+    // --- Reminders ---
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return Reminders that have fired since they were last dismissed, oldest first.
+     */
+    public synchronized List<Reminder> getPending() {
+        return new ArrayList<>(pending);
+    }
+
+    public synchronized void dismiss(Reminder reminder) {
+        pending.remove(reminder);
+    }
+
+    public void close() throws IOException {
+        ticker.interrupt();
+        log.close();
+    }
+
+    // --- Internals ---
+
+    private void run() {
+        long tickMillis = wheel.getTickMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long now = System.currentTimeMillis();
+                Thread.sleep(tickMillis - now % tickMillis); // Wake on the tick boundary
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<CarePlan> due;
+            synchronized (this) {
+                due = wheel.advance(System.currentTimeMillis());
+            }
+            for (CarePlan plan : due) {
+                fire(plan);
+            }
+        }
+    }
+
+    private void fire(CarePlan plan) {
+        synchronized (this) {
+            if (plans.get(plan.getId()) != plan) {
+                return; // Replaced or removed just as it fell due; a replacement has its own timer
+            }
+            timers.remove(plan.getId());
+        }
+        LocalDateTime wanted = plan.getNextDue().atTime(plan.getPreferredTime());
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> slots = scheduler.findFreeSlots(plan.getVet(), wanted.isAfter(now) ? wanted : now,
+            AppointmentScheduler.DEFAULT_DURATION, 1);
+        CompletableFuture<Appointment> booking = slots.isEmpty()
+            ? CompletableFuture.completedFuture(null)
+            : scheduler.book(plan.getVet(), slots.get(0), AppointmentScheduler.DEFAULT_DURATION, detailsFor(plan));
+        booking.handle((appointment, error) -> {
+            if (error != null) {
+                System.err.println("Could not book " + plan + ": " + Authenticator.unwrap(error).getMessage());
+            }
+            remind(plan, error == null ? appointment : null);
+            return null;
+        });
+    }
+
+    /**
+     * Records the reminder, tells listeners, and moves the plan on one interval from the
+     * visit (or from its due date if nothing was booked).
+     */
+    private void remind(CarePlan plan, Appointment appointment) {
+        Reminder reminder = new Reminder(plan, appointment);
+        LocalDate visit = (appointment != null) ? appointment.getStart().toLocalDate() : plan.getNextDue();
+        CarePlan advanced = plan.withNextDue(later(visit, LocalDate.now()).plus(plan.getInterval()));
+        synchronized (this) {
+            pending.add(reminder);
+            if (plans.get(plan.getId()) == plan) { // Not replaced or removed meanwhile
+                index(advanced);
+                schedule(advanced);
+                save(advanced);
+            }
+        }
+        if (appointment != null) {
+            CatalogSearch.getInstance().indexAppointment(appointment);
+        }
+        for (Listener listener : listeners) {
+            listener.reminderDue(reminder);
+        }
+    }
+
+    // Caller holds the lock (or is the constructor)
+    private void schedule(CarePlan plan) {
+        TimerWheel.Timeout<CarePlan> previous = timers.remove(plan.getId());
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        LocalDateTime remindAt = plan.getNextDue().minusDays(REMIND_DAYS_BEFORE).atTime(plan.getPreferredTime());
+        long deadline = remindAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        timers.put(plan.getId(), wheel.schedule(deadline, plan));
+    }
+
+    private void index(CarePlan plan) {
+        plans.put(plan.getId(), plan);
+        byPetAndKind.put(key(plan), plan.getId());
+    }
+
+    // Caller holds the lock, so plans reach the log in the order they changed in memory
+    private CompletableFuture<Long> save(CarePlan plan) {
+        try {
+            return log.append(record(SAVED, plan.toBytes()));
+        } catch (IOException e) {
+            System.err.println("Could not save " + plan + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void replay(byte[] payload) {
+        try {
+            if (payload[0] == SAVED) {
+                CarePlan plan = CarePlan.fromBytes(Arrays.copyOfRange(payload, 1, payload.length));
+                index(plan);
+                nextId = Math.max(nextId, plan.getId() + 1);
+            } else if (payload[0] == REMOVED) {
+                CarePlan plan = plans.remove(ByteBuffer.wrap(payload, 1, 8).getLong());
+                if (plan != null) {
+                    byPetAndKind.remove(key(plan));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Skipping unreadable care plan record: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> detailsFor(CarePlan plan) {
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("petName", plan.getPetName());
+        details.put("ownerName", plan.getOwnerName());
+        details.put("contactNumber", plan.getContactNumber());
+        details.put("reason", plan.getKind());
+        return details;
+    }
+
+    private static String key(CarePlan plan) {
+        return plan.getOwnerName().toLowerCase(Locale.ROOT) + "|" + plan.getPetName().toLowerCase(Locale.ROOT) + "|" + plan.getKind();
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static byte[] record(byte type, byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 1);
+        bytes.write(type);
+        bytes.write(body, 0, body.length);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The Dashboard's search over pets, adoption applications, vet appointments, vets and accounts.
+ * Wraps a shared {@link SearchIndex}, fills it from the local stores on first use and
+ * keeps it current as records are added.
+ */
+public final class CatalogSearch {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    private static final CatalogSearch INSTANCE = new CatalogSearch();
+
+    private final SearchIndex index = new SearchIndex();
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private boolean loadStarted = false;
+
+    private CatalogSearch() {
+    }
+
+    public static CatalogSearch getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts building the index from the local stores in the background, once.
+     */
+    public synchronized void startLoading() {
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+        // Loading always runs on its own thread: searches may be cancelled by interrupting
+        // their thread, and an interrupt must never land in the middle of store I/O.
+        Thread loader = new Thread(() -> {
+            try {
+                load();
+            } finally {
+                loaded.complete(null);
+            }
+        }, "search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Waits until the index has been built, starting the build if needed.
+     */
+    public void ensureLoaded() {
+        startLoading();
+        loaded.join();
+    }
+
+    private void load() {
+        try {
+            PetRepository pets = FilePetRepository.getDefault();
+            for (int offset = 0; offset < pets.count(); offset += LOAD_PAGE_SIZE) {
+                for (Pet pet : pets.findPage(offset, LOAD_PAGE_SIZE)) {
+                    indexPet(pet);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not index pets: " + e.getMessage());
+        }
+        try {
+            AdoptionApplicationStore applications = AdoptionApplicationStore.getDefault();
+            for (int offset = 0; offset < applications.count(); offset += LOAD_PAGE_SIZE) {
+                for (AdoptionApplication application : applications.findPage(offset, LOAD_PAGE_SIZE)) {
+                    indexApplication(application);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not index adoption applications: " + e.getMessage());
+        }
+        try {
+            for (Appointment appointment : AppointmentScheduler.getDefault().findAll()) {
+                indexAppointment(appointment);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not index appointments: " + e.getMessage());
+        }
+        try {
+            VetDirectory vets = VetDirectory.getDefault();
+            for (int offset = 0; offset < vets.count(); offset += LOAD_PAGE_SIZE) {
+                for (Vet vet : vets.find(Map.of(), offset, LOAD_PAGE_SIZE)) {
+                    indexVet(vet);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not index vets: " + e.getMessage());
+        }
+        try {
+            for (Account account : AccountStore.getDefault().findAll()) {
+                indexAccount(account);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not index accounts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the best matches for the query, loading the index first if needed.
+     */
+    public List<SearchIndex.Result> search(String query, int limit) {
+        ensureLoaded();
+        return index.search(query, limit);
+    }
+
+    /**
+     * Incremental variant for search-as-you-type; see {@link SearchIndex#search(String, int, SearchIndex.Hits)}.
+     */
+    public SearchIndex.Hits search(String query, int limit, SearchIndex.Hits previous) {
+        ensureLoaded();
+        return index.search(query, limit, previous);
+    }
+
+    public void indexPet(Pet pet) {
+        index.put(new SearchIndex.Document(
+            "pet:" + pet.getId(), "Pet", pet.getName(), pet.getStatus(), ""));
+    }
+
+    public void indexApplication(AdoptionApplication application) {
+        String owner = (application.getField("ownerFirstname") + " " + application.getField("ownerLastname")).trim();
+        String dog = application.getField("dogName");
+        index.put(new SearchIndex.Document(
+            "application:" + application.getId(),
+            "Adoption",
+            "Application #" + application.getId() + (dog.isEmpty() ? "" : " - " + dog),
+            owner.isEmpty() ? "No owner name" : owner,
+            searchableText(application)));
+    }
+
+    public void indexAppointment(Appointment appointment) {
+        String pet = appointment.getDetail("petName");
+        index.put(new SearchIndex.Document(
+            "appointment:" + appointment.getId(),
+            "Appointment",
+            (pet.isEmpty() ? "Appointment" : pet) + " with " + appointment.getVet(),
+            appointment.getStart().toLocalDate() + " " + appointment.getStart().toLocalTime(),
+            String.join(" ", appointment.getDetails().values())));
+    }
+
+    public void indexVet(Vet vet) {
+        index.put(new SearchIndex.Document(
+            "vet:" + vet.getId(), "Vet", vet.getName(), vet.getSpecialty() + " - " + vet.getClinic(),
+            vet.getArea() + " " + vet.getAddress() + " " + vet.getPhone() + " " + vet.getEmail()));
+    }
+
+    public void indexAccount(Account account) {
+        index.put(new SearchIndex.Document(
+            "account:" + account.getUsername(), "Account", account.getFullName(), account.getUsername(),
+            account.getEmail() + " " + account.getContactNumber()));
+    }
+
+    // Every field value except the photo reference, whose hash would only add noise
+    private static String searchableText(AdoptionApplication application) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> field : application.getFields().entrySet()) {
+            if (!field.getKey().equals(AdoptionApplication.PET_IMAGE_FIELD)) {
+                text.append(field.getValue()).append(' ');
+            }
+        }
+        return text.toString();
+    }
+}
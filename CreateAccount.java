@@ -1,11 +1,11 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.regex.Pattern;
-import javax.imageio.ImageIO;
+import java.util.Map;
+import java.util.function.Predicate;
 import javax.swing.Timer;
 
 public class CreateAccount extends JFrame {
@@ -26,6 +26,9 @@ public class CreateAccount extends JFrame {
     private RoundedPasswordField passwordField, repeatPasswordField;
     private RoundedTextField contactNumberField, emailField;
 
+    private JButton submitButton;
+    private final Validator validator = createValidator();
+
     // Error labels
     private JLabel fullNameError, usernameError, passwordError, repeatPasswordError, contactNumberError, emailError, successMessage;
 
@@ -61,6 +64,7 @@ public class CreateAccount extends JFrame {
 
 
         add(createFormPanel());
+        bindValidation();
         add(createInfoPanel());
         
         // Proper window initialization sequence
@@ -172,7 +176,7 @@ public class CreateAccount extends JFrame {
         buttonPanel.setOpaque(false); // Keep transparent to match form panel
         buttonPanel.setBackground(COLOR_BACKGROUND); // Ensure consistent background
         
-        JButton submitButton = createStyledButton("SUBMIT", COLOR_BUTTON_SUBMIT, COLOR_BUTTON_SUBMIT_HOVER);
+        submitButton = createStyledButton("SUBMIT", COLOR_BUTTON_SUBMIT, COLOR_BUTTON_SUBMIT_HOVER);
         submitButton.addActionListener(_ -> handleSubmit());
         
         JButton backButton = createStyledButton("BACK", COLOR_BUTTON_BACK, COLOR_BUTTON_BACK_HOVER);
@@ -272,92 +276,104 @@ public class CreateAccount extends JFrame {
 
     private void handleSubmit() {
         successMessage.setText("");
-        if (validateForm()) {
-            successMessage.setText("Account created successfully!");
-            // After successful account creation, redirect to dashboard
-            Timer timer = new Timer(2000, _ -> {
-                this.dispose();
-                SwingUtilities.invokeLater(() -> new Dashboard().setVisible(true));
-            });
-            timer.setRepeats(false);
-            timer.start();
-        }
-    }
-
-    private boolean validateForm() {
-        boolean isValid = true;
-        clearErrors();
-
-        // Full Name
-        if (fullNameField.getText().trim().isEmpty()) {
-            fullNameError.setText("Full name is required.");
-            isValid = false;
+        if (!validateForm()) {
+            return;
         }
-
-        // Username
-        String username = usernameField.getText().trim();
-        if (username.isEmpty()) {
-            usernameError.setText("Username is required.");
-            isValid = false;
-        } else if (username.length() < 8) {
-            usernameError.setText("Username must be at least 8 characters.");
-            isValid = false;
-        } else if (!username.matches("^[a-zA-Z0-9_]+$")) {
-            usernameError.setText("Username can only contain letters, numbers, and underscores.");
-            isValid = false;
-        }
-
-        // Password
-        String pass = new String(passwordField.getPassword());
-        if (pass.trim().isEmpty()) {
-            passwordError.setText("Password is required.");
-            isValid = false;
-        } else if (pass.length() < 8) {
-            passwordError.setText("Password must be at least 8 characters.");
-            isValid = false;
+        Authenticator authenticator;
+        try {
+            authenticator = Authenticator.getDefault();
+        } catch (IOException e) {
+            System.err.println("Error opening account store: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "Accounts are unavailable right now.", "Create Account Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        // Hashing the password takes a moment, so it runs in the background
+        submitButton.setEnabled(false);
+        authenticator.register(usernameField.getText().trim(), fullNameField.getText().trim(),
+                contactNumberField.getText().trim(), emailField.getText().trim(), passwordField.getPassword())
+            .whenComplete((account, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    submitButton.setEnabled(true);
+                    Throwable cause = Authenticator.unwrap(error);
+                    if (cause instanceof AccountStore.UsernameTakenException) {
+                        usernameError.setText("Username is already taken.");
+                    } else if (cause instanceof AccountStore.EmailTakenException) {
+                        emailError.setText("An account with this email already exists.");
+                    } else {
+                        System.err.println("Error creating account: " + cause.getMessage());
+                        JOptionPane.showMessageDialog(this, "Could not create the account. Please try again.",
+                            "Create Account Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                    return;
+                }
+                CatalogSearch.getInstance().indexAccount(account);
+                successMessage.setText("Account created successfully!");
+                // After successful account creation, redirect to dashboard
+                Timer timer = new Timer(2000, _ -> {
+                    this.dispose();
+                    SwingUtilities.invokeLater(() -> new Dashboard().setVisible(true));
+                });
+                timer.setRepeats(false);
+                timer.start();
+            }));
+    }
 
-        // Repeat Password
-        String repeatPass = new String(repeatPasswordField.getPassword());
-        if (repeatPass.trim().isEmpty()) {
-            repeatPasswordError.setText("Please confirm your password.");
-            isValid = false;
-        } else if (!pass.equals(repeatPass)) {
-            repeatPasswordError.setText("Passwords do not match.");
-            isValid = false;
-        }
+    /**
+     * The account form's rules, declared once; see {@link Validator}.
+     */
+    private static Validator createValidator() {
+        return new Validator()
+            .addField("fullName", Validator.required("Full name is required."))
+            .addField("username",
+                Validator.required("Username is required."),
+                Validator.minLength(8, "Username must be at least 8 characters."),
+                Validator.identifier("Username can only contain letters, numbers, and underscores."))
+            .addField("password",
+                Validator.required("Password is required."),
+                Validator.minLength(8, "Password must be at least 8 characters."))
+            .addField("repeatPassword",
+                Validator.required("Please confirm your password."),
+                Validator.sameAs("password", "Passwords do not match."))
+            .addDependency("repeatPassword", "password")
+            .addField("contactNumber",
+                Validator.required("Contact number is required."),
+                Validator.digits("Please enter a valid number."))
+            .addField("email",
+                Validator.required("Email is required."),
+                Validator.matches(Validator.EMAIL, "Please enter a valid email address."))
+            .addBackgroundRule("username", (value, form) ->
+                isTaken(store -> store.isUsernameTaken(value)) ? "Username is already taken." : null)
+            .addBackgroundRule("email", (value, form) ->
+                isTaken(store -> store.isEmailTaken(value)) ? "An account with this email already exists." : null);
+    }
 
-        // Contact Number
-        String contact = contactNumberField.getText().trim();
-        if (contact.isEmpty()) {
-            contactNumberError.setText("Contact number is required.");
-            isValid = false;
-        } else if (!contact.matches("\\d+")) {
-            contactNumberError.setText("Please enter a valid number.");
-            isValid = false;
-        }
-        
-        // Email
-        String email = emailField.getText().trim();
-        if (email.isEmpty()) {
-            emailError.setText("Email is required.");
-            isValid = false;
-        } else if (!Pattern.compile("^(([^<>()\\[\\]\\\\.,;:\\s@\"]+(\\.[^<>()\\[\\]\\\\.,;:\\s@\"]+)*)|(\".+\"))@((\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}])|(([a-zA-Z\\-0-9]+\\.)+[a-zA-Z]{2,}))$")
-                .matcher(email).matches()) {
-            emailError.setText("Please enter a valid email address.");
-            isValid = false;
+    // The store re-checks on submit, so if it cannot be opened here just don't complain yet
+    private static boolean isTaken(Predicate<AccountStore> lookup) {
+        try {
+            return lookup.test(AccountStore.getDefault());
+        } catch (IOException e) {
+            return false;
         }
+    }
 
-        return isValid;
+    /**
+     * Connects the fields to the validator so each one is checked as it changes.
+     */
+    private void bindValidation() {
+        Map<String, JLabel> errorLabels = Map.of(
+            "fullName", fullNameError, "username", usernameError, "password", passwordError,
+            "repeatPassword", repeatPasswordError, "contactNumber", contactNumberError, "email", emailError);
+        validator.setListener((field, error) -> errorLabels.get(field).setText(error == null ? " " : error));
+        validator.bind("fullName", fullNameField);
+        validator.bind("username", usernameField);
+        validator.bind("password", passwordField);
+        validator.bind("repeatPassword", repeatPasswordField);
+        validator.bind("contactNumber", contactNumberField);
+        validator.bind("email", emailField);
     }
 
-    private void clearErrors() {
-        fullNameError.setText(" ");
-        usernameError.setText(" ");
-        passwordError.setText(" ");
-        repeatPasswordError.setText(" ");
-        contactNumberError.setText(" ");
-        emailError.setText(" ");
+    private boolean validateForm() {
+        return validator.validateAll(); // Unchanged fields reuse their last result
     }
     
     // --- Helper methods for creating components ---
@@ -455,17 +471,14 @@ class RoundedPasswordField extends JPasswordField {
 }
 
 class RoundedImageLabel extends JLabel {
-    private Image image;
+    private BufferedImage image;
+    private BufferedImage rendered; // image fitted and rounded to the current size
     private final int cornerRadius;
 
     public RoundedImageLabel(String path, int cornerRadius) {
         this.cornerRadius = cornerRadius;
         try {
-            if (path.startsWith("http")) {
-                this.image = ImageIO.read(java.net.URI.create(path).toURL());
-            } else {
-                this.image = ImageIO.read(new File(path));
-            }
+            this.image = ImageCache.getInstance().getImage(path);
             if (image != null) {
                 System.out.println("Image loaded successfully: " + path + 
                     " (Size: " + image.getWidth(null) + "x" + image.getHeight(null) + ")");
@@ -485,38 +498,20 @@ class RoundedImageLabel extends JLabel {
     @Override
     protected void paintComponent(Graphics g) {
         if (image != null) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-            
-            // Get component dimensions
             int componentWidth = getWidth();
             int componentHeight = getHeight();
-            
-            if (componentWidth > 0 && componentHeight > 0) {
-                // Calculate scaling to fit within component while maintaining aspect ratio
-                int imageWidth = image.getWidth(null);
-                int imageHeight = image.getHeight(null);
-                
-                double scaleX = (double) componentWidth / imageWidth;
-                double scaleY = (double) componentHeight / imageHeight;
-                double scale = Math.min(scaleX, scaleY);
-                
-                int newWidth = (int) (imageWidth * scale);
-                int newHeight = (int) (imageHeight * scale);
-                int x = (componentWidth - newWidth) / 2;
-                int y = (componentHeight - newHeight) / 2;
-                
-                // Create rounded rectangle clip
-                RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, componentWidth, componentHeight, cornerRadius, cornerRadius);
-                g2d.setClip(roundRect);
-                
-                // Draw the scaled and centered image
-                g2d.drawImage(image, x, y, newWidth, newHeight, this);
+            if (componentWidth <= 0 || componentHeight <= 0) {
+                return;
+            }
+
+            // Scale and round once per size; later repaints (hover, focus) only blit
+            if (rendered == null || rendered.getWidth() != componentWidth || rendered.getHeight() != componentHeight) {
+                rendered = ImageCache.renderRounded(image, componentWidth, componentHeight, cornerRadius,
+                    getGraphicsConfiguration());
             }
-            g2d.dispose();
+            g.drawImage(rendered, 0, 0, null);
         } else {
-            super.paintComponent(g);
+            super.paintComponent(g); // If image is null, just behave like a normal JLabel
         }
     }
 }
@@ -3,10 +3,13 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * A simple dashboard with a sidebar navigation and a main content area.
@@ -18,6 +21,18 @@ public class Dashboard extends JFrame {
     private JPanel mainContent;
     private JPanel headerPanel;
     private CardLayout cardLayout;
+    private SearchResultsPanel searchResultsPanel;
+    private LiveSearch liveSearch;
+    private JButton remindersButton;
+    private CareReminders careReminders; // Null until loaded
+    private CareReminders.Listener remindersListener; // Registered while the frame is open
+    private boolean disposed;
+    private final SessionCache.Session session; // Null when started without signing in
+
+    // Cards not built yet, in prewarm order (name -> factory), and their stand-ins
+    private final Map<String, Supplier<JComponent>> lazyCards = new LinkedHashMap<>();
+    private final Map<String, JComponent> cardPlaceholders = new LinkedHashMap<>();
+    private static final int PREWARM_DELAY_MILLIS = 1000;
 
     // Define colors for a modern look
     private final Color SIDEBAR_BACKGROUND = new Color(34, 40, 49); // Dark Gray
@@ -26,6 +41,15 @@ public class Dashboard extends JFrame {
     private final Color MAIN_BACKGROUND = new Color(245, 245, 245); // Off-white
 
     public Dashboard() {
+        this(null);
+    }
+
+    /**
+     * @param session The signed-in user's session, ended on logout.
+     */
+    public Dashboard(SessionCache.Session session) {
+        this.session = session;
+
         // --- 1. Frame Setup ---
         setTitle("Dashboard");
         setSize(1200, 800);
@@ -42,6 +66,23 @@ public class Dashboard extends JFrame {
         add(sidebar, BorderLayout.WEST);
         add(headerPanel, BorderLayout.NORTH);
         add(mainContent, BorderLayout.CENTER);
+
+        // --- 4. Build the search index in the background ---
+        CatalogSearch.getInstance().startLoading();
+
+        // --- 5. Start care reminders in the background ---
+        startReminders();
+
+        // --- 6. Build the landing card once the frame has painted, then prewarm the rest ---
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowOpened(java.awt.event.WindowEvent windowEvent) {
+                SwingUtilities.invokeLater(() -> {
+                    ensureCardBuilt("PAW_PANEL");
+                    startPrewarming();
+                });
+            }
+        });
     }
 
     /**
@@ -156,14 +197,14 @@ public class Dashboard extends JFrame {
             }
         });
         
+        // Search as the user types; results replace the main content when they arrive
+        liveSearch = new LiveSearch(searchField, placeholder, this::showSearchResults);
+
         // Add action listener for search
         searchField.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String searchText = searchField.getText();
-                if (!searchText.equals(placeholder) && !searchText.trim().isEmpty()) {
-                    performSearch(searchText);
-                }
+                liveSearch.searchNow(); // Skip the debounce delay
             }
         });
         
@@ -187,7 +228,7 @@ public class Dashboard extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 String searchText = searchField.getText();
                 if (!searchText.equals(placeholder) && !searchText.trim().isEmpty()) {
-                    performSearch(searchText);
+                    liveSearch.searchNow();
                 } else {
                     JOptionPane.showMessageDialog(Dashboard.this, 
                         "Please enter something to search for.",
@@ -219,6 +260,20 @@ public class Dashboard extends JFrame {
         searchPanel.add(Box.createRigidArea(new Dimension(10, 0))); // Add spacing
         searchPanel.add(addNewButton);
 
+        // --- Reminders Button ---
+        remindersButton = new JButton("🔔 0");
+        remindersButton.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        remindersButton.setBackground(new Color(255, 193, 7)); // Amber color
+        remindersButton.setForeground(Color.BLACK);
+        remindersButton.setFocusPainted(false);
+        remindersButton.setBorder(new EmptyBorder(8, 15, 8, 15));
+        remindersButton.setPreferredSize(new Dimension(70, 30));
+        remindersButton.setToolTipText("Care reminders");
+        remindersButton.addActionListener(_ -> showReminders());
+
+        searchPanel.add(Box.createRigidArea(new Dimension(10, 0))); // Add spacing
+        searchPanel.add(remindersButton);
+
         // --- Logout Button ---
         JButton logoutButton = new JButton("🚪 Logout");
         logoutButton.setFont(new Font("SansSerif", Font.PLAIN, 14));
@@ -240,6 +295,57 @@ public class Dashboard extends JFrame {
         headerPanel.add(logoutButton, BorderLayout.EAST);
     }
 
+    /**
+     * Loads the care plans off the EDT, then keeps the reminder count in the header current.
+     */
+    private void startReminders() {
+        Thread loader = new Thread(() -> {
+            try {
+                CareReminders reminders = CareReminders.getDefault();
+                SwingUtilities.invokeLater(() -> {
+                    if (disposed) {
+                        return; // Logged out before the plans loaded
+                    }
+                    careReminders = reminders;
+                    remindersListener = _ -> SwingUtilities.invokeLater(this::updateRemindersButton);
+                    reminders.addListener(remindersListener);
+                    updateRemindersButton();
+                });
+            } catch (IOException e) {
+                System.err.println("Error opening care plans: " + e.getMessage());
+            }
+        }, "care-reminders-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void updateRemindersButton() {
+        if (careReminders == null) {
+            return;
+        }
+        remindersButton.setText("🔔 " + careReminders.getPending().size());
+    }
+
+    /**
+     * Lists the reminders that have come due and dismisses them.
+     */
+    private void showReminders() {
+        List<CareReminders.Reminder> pending = (careReminders == null) ? List.of() : careReminders.getPending();
+        if (pending.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No care reminders right now.", "Reminders", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (CareReminders.Reminder reminder : pending) {
+            message.append("• ").append(reminder).append("\n");
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Reminders", JOptionPane.INFORMATION_MESSAGE);
+        for (CareReminders.Reminder reminder : pending) {
+            careReminders.dismiss(reminder);
+        }
+        updateRemindersButton();
+    }
+
     /**
      * Handles the adoption button click by opening the AdoptionForm
      */
@@ -347,14 +453,26 @@ public class Dashboard extends JFrame {
     }
 
     /**
-     * Handles the search functionality.
+     * Shows the results of a search run by {@link LiveSearch}.
      */
-    private void performSearch(String searchText) {
-        // Here you can implement your search logic
-        JOptionPane.showMessageDialog(this, 
-            "Searching for: " + searchText + "\n\nThis is where you would implement the actual search functionality.",
-            "Search", 
-            JOptionPane.INFORMATION_MESSAGE);
+    private void showSearchResults(String query, SearchIndex.Hits hits, double elapsedMillis) {
+        searchResultsPanel.showResults(query, hits.getResults(), elapsedMillis);
+        cardLayout.show(mainContent, "SEARCH_PANEL");
+    }
+
+    /**
+     * Stops the live search thread and the care reminders listener, which would otherwise
+     * outlive this frame.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        liveSearch.close();
+        if (remindersListener != null) {
+            careReminders.removeListener(remindersListener);
+            remindersListener = null;
+        }
+        super.dispose();
     }
 
     /**
@@ -368,7 +486,14 @@ public class Dashboard extends JFrame {
             JOptionPane.QUESTION_MESSAGE);
             
         if (option == JOptionPane.YES_OPTION) {
-            // Close the current dashboard
+            // End the session so the next sign-in at this workstation needs the password checked
+            if (session != null) {
+                try {
+                    Authenticator.getDefault().logout(session);
+                } catch (IOException e) {
+                    System.err.println("Error opening account store: " + e.getMessage()); // The session will expire
+                }
+            }
             this.dispose();
             
             // Return to login screen with error handling
@@ -392,30 +517,101 @@ public class Dashboard extends JFrame {
         mainContent = new JPanel(cardLayout);
         mainContent.setBackground(MAIN_BACKGROUND);
 
-        // Create panels with error handling for missing classes
-        try {
-            mainContent.add(new PawManagement(), "PAW_PANEL");
-        } catch (Exception e) {
-            System.err.println("PawManagement class not found, using placeholder");
-            mainContent.add(createContentPanel("Paw Management"), "PAW_PANEL");
-        }
-        
-        try {
-            mainContent.add(new VetAppointment(), "LICENSE_PANEL");
-        } catch (Exception e) {
-            System.err.println("VetAppointment class not found, using placeholder");
-            mainContent.add(createContentPanel("Vet Appointments"), "LICENSE_PANEL");
-        }
+        // The heavy panels are only built when first shown (or prewarmed while idle)
+        addLazyCard("PAW_PANEL", () -> {
+            try {
+                return new PawManagement();
+            } catch (Exception e) {
+                System.err.println("PawManagement class not found, using placeholder");
+                return createContentPanel("Paw Management");
+            }
+        });
+
+        addLazyCard("LICENSE_PANEL", () -> {
+            try {
+                return new VetAppointment();
+            } catch (Exception e) {
+                System.err.println("VetAppointment class not found, using placeholder");
+                return createContentPanel("Vet Appointments");
+            }
+        });
         
+        searchResultsPanel = new SearchResultsPanel();
+        mainContent.add(searchResultsPanel, "SEARCH_PANEL");
+
         mainContent.add(createContentPanel("Support Center"), "SUPPORT_PANEL");
         mainContent.add(createContentPanel("Contact Us"), "CONTACT_PANEL");
         
-        try {
-            mainContent.add(AboutUs.createAboutUsPanel(), "ABOUT_PANEL");
-        } catch (Exception e) {
-            System.err.println("AboutUs class not found, using placeholder");
-            mainContent.add(createContentPanel("About Us"), "ABOUT_PANEL");
+        addLazyCard("ABOUT_PANEL", () -> {
+            try {
+                return AboutUs.createAboutUsPanel();
+            } catch (Exception e) {
+                System.err.println("AboutUs class not found, using placeholder");
+                return createContentPanel("About Us");
+            }
+        });
+    }
+
+    // --- Lazily built cards ---
+
+    /**
+     * Adds a card that is built the first time it is shown. Until then a
+     * lightweight "Loading..." panel holds its place in the CardLayout.
+     */
+    private void addLazyCard(String name, Supplier<JComponent> factory) {
+        JComponent placeholder = createContentPanel("Loading...");
+        mainContent.add(placeholder, name);
+        cardPlaceholders.put(name, placeholder);
+        lazyCards.put(name, factory);
+    }
+
+    /**
+     * Shows a card, building it first if it has not been built yet.
+     */
+    private void showCard(String name) {
+        ensureCardBuilt(name);
+        cardLayout.show(mainContent, name);
+    }
+
+    /**
+     * Swaps a lazy card's placeholder for the real panel. Does nothing if the card
+     * is already built.
+     */
+    private void ensureCardBuilt(String name) {
+        Supplier<JComponent> factory = lazyCards.remove(name);
+        if (factory == null) {
+            return;
         }
+        JComponent placeholder = cardPlaceholders.remove(name);
+        boolean showing = placeholder.isVisible();
+        int position = mainContent.getComponentZOrder(placeholder);
+
+        JComponent card = factory.get();
+        mainContent.remove(placeholder);
+        mainContent.add(card, name, position);
+        if (showing) {
+            cardLayout.show(mainContent, name);
+        }
+        mainContent.revalidate();
+        mainContent.repaint();
+    }
+
+    /**
+     * Builds the remaining lazy cards one at a time, only while the event queue is
+     * empty, so prewarming never delays the user's clicks or typing.
+     */
+    private void startPrewarming() {
+        Timer prewarmTimer = new Timer(PREWARM_DELAY_MILLIS, null);
+        prewarmTimer.addActionListener(_ -> {
+            if (lazyCards.isEmpty() || !isDisplayable()) {
+                prewarmTimer.stop();
+                return;
+            }
+            if (Toolkit.getDefaultToolkit().getSystemEventQueue().peekEvent() == null) {
+                ensureCardBuilt(lazyCards.keySet().iterator().next());
+            }
+        });
+        prewarmTimer.start();
     }
 
     /**
@@ -442,7 +638,7 @@ public class Dashboard extends JFrame {
         button.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                cardLayout.show(mainContent, panelName);
+                showCard(panelName);
             }
         });
 
@@ -482,13 +678,14 @@ public class Dashboard extends JFrame {
  * A custom JLabel that displays an image with rounded corners.
  */
 class RoundedImageComponent extends JLabel {
-    private Image originalImage;
+    private BufferedImage originalImage;
+    private BufferedImage rendered; // originalImage fitted and rounded to the current size
     private final int cornerRadius;
 
     public RoundedImageComponent(String imagePath, int cornerRadius) {
         this.cornerRadius = cornerRadius;
         try {
-            this.originalImage = ImageIO.read(new File(imagePath));
+            this.originalImage = ImageCache.getInstance().getImage(imagePath);
             if (originalImage != null) {
                 System.out.println("Image loaded successfully: " + imagePath + 
                     " (Size: " + originalImage.getWidth(null) + "x" + originalImage.getHeight(null) + ")");
@@ -506,48 +703,18 @@ class RoundedImageComponent extends JLabel {
     @Override
     protected void paintComponent(Graphics g) {
         if (originalImage != null) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            // Maintain aspect ratio
             int componentWidth = getWidth();
             int componentHeight = getHeight();
-            
-            // Ensure we have valid dimensions
             if (componentWidth <= 0 || componentHeight <= 0) {
-                g2d.dispose();
                 return;
             }
-            
-            int imageWidth = originalImage.getWidth(this);
-            int imageHeight = originalImage.getHeight(this);
-
-            double imageAspect = (double) imageWidth / (double) imageHeight;
-            double componentAspect = (double) componentWidth / (double) componentHeight;
-
-            int newWidth, newHeight, x, y;
-
-            if (imageAspect > componentAspect) {
-                // Image is wider than the component, scale by width
-                newWidth = componentWidth;
-                newHeight = (int) (newWidth / imageAspect);
-                x = 0;
-                y = (componentHeight - newHeight) / 2;
-            } else {
-                // Image is taller or has same aspect ratio, scale by height
-                newHeight = componentHeight;
-                newWidth = (int) (newHeight * imageAspect);
-                y = 0;
-                x = (componentWidth - newWidth) / 2;
-            }
 
-            // Clip the area to a rounded rectangle before drawing
-            RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), cornerRadius, cornerRadius);
-            g2d.setClip(roundRect);
-
-            // Draw the image scaled and centered
-            g2d.drawImage(originalImage, x, y, newWidth, newHeight, this);
-            g2d.dispose();
+            // Scale and round once per size; later repaints (hover, focus) only blit
+            if (rendered == null || rendered.getWidth() != componentWidth || rendered.getHeight() != componentHeight) {
+                rendered = ImageCache.renderRounded(originalImage, componentWidth, componentHeight, cornerRadius,
+                    getGraphicsConfiguration());
+            }
+            g.drawImage(rendered, 0, 0, null);
         } else {
             super.paintComponent(g); // If image is null, just behave like a normal JLabel
         }
@@ -0,0 +1,384 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An embedded, file-backed pet repository that needs no server.
+ *
+ * Records are appended to a single data file; an update appends a new version and a
+ * delete appends a tombstone. Only the indexes live in memory (id to file offset, plus
+ * secondary indexes on status and name), and records are read from disk one page at a
+ * time when queried. Each save or delete is synced before it returns. A torn record at
+ * the end of the file (e.g. after a crash mid-write), including one whose contents do not
+ * fill its stated length, is truncated on open.
+ */
+public class FilePetRepository implements PetRepository {
+
+    private static final int MAGIC = 0x50415750; // "PAWP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte FLAG_LIVE = 0;
+    private static final byte FLAG_DELETED = 1;
+
+    // Rewrite the file once more than half of it is superseded records
+    private static final double COMPACT_RATIO = 0.5;
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    private static FilePetRepository defaultRepository;
+
+    private final File file;
+    private RandomAccessFile data;
+    private long nextId = 1;
+    private int deadRecords = 0;
+
+    // --- Indexes ---
+    private final TreeMap<Long, Long> offsetsById = new TreeMap<>();
+    private final Map<String, TreeSet<Long>> idsByStatus = new HashMap<>();
+    private final TreeMap<String, TreeSet<Long>> idsByName = new TreeMap<>();
+    private final Map<Long, String[]> keysById = new HashMap<>(); // {status, name} as indexed
+    private List<Long> orderedIds = null; // Positional view of offsetsById, rebuilt lazily
+
+    public FilePetRepository(File file) throws IOException {
+        this.file = file;
+        this.data = new RandomAccessFile(file, "rw");
+        if (data.length() == 0) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+        } else {
+            loadIndexes();
+        }
+    }
+
+    /**
+     * Returns the shared repository stored in the PawTrack data directory.
+     */
+    public static synchronized FilePetRepository getDefault() throws IOException {
+        if (defaultRepository == null) {
+            defaultRepository = new FilePetRepository(AppData.file("pets.db"));
+        }
+        return defaultRepository;
+    }
+
+    @Override
+    public synchronized Pet save(Pet pet) throws IOException {
+        Pet stored = (pet.getId() == 0) ? pet.withId(nextId++) : pet;
+        nextId = Math.max(nextId, stored.getId() + 1);
+
+        long offset = append(FLAG_LIVE, stored);
+        if (offsetsById.containsKey(stored.getId())) {
+            deadRecords++;
+        }
+        index(stored, offset);
+        compactIfNeeded();
+        return stored;
+    }
+
+    @Override
+    public synchronized boolean delete(long id) throws IOException {
+        if (!offsetsById.containsKey(id)) {
+            return false;
+        }
+        append(FLAG_DELETED, new Pet(id, "", "", null));
+        unindex(id);
+        deadRecords += 2; // The old version and the tombstone itself
+        compactIfNeeded();
+        return true;
+    }
+
+    @Override
+    public synchronized Pet findById(long id) throws IOException {
+        Long offset = offsetsById.get(id);
+        return (offset == null) ? null : readAt(offset);
+    }
+
+    @Override
+    public synchronized List<Pet> findPage(int offset, int limit) throws IOException {
+        if (orderedIds == null) {
+            orderedIds = new ArrayList<>(offsetsById.keySet());
+        }
+        int from = Math.min(Math.max(offset, 0), orderedIds.size());
+        int to = Math.min(from + Math.max(limit, 0), orderedIds.size());
+        return readAll(orderedIds.subList(from, to));
+    }
+
+    @Override
+    public synchronized List<Pet> findByStatus(String status, int offset, int limit) throws IOException {
+        TreeSet<Long> ids = idsByStatus.get(normalize(status));
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return readAll(slice(ids.iterator(), offset, limit));
+    }
+
+    @Override
+    public synchronized List<Pet> findByNamePrefix(String prefix, int offset, int limit) throws IOException {
+        String key = normalize(prefix);
+        NavigableMap<String, TreeSet<Long>> matches = idsByName.subMap(key, true, key + Character.MAX_VALUE, false);
+        List<Long> ids = new ArrayList<>();
+        int skipped = 0;
+        for (TreeSet<Long> group : matches.values()) {
+            for (Long id : group) {
+                if (skipped++ < offset) {
+                    continue;
+                }
+                if (ids.size() >= limit) {
+                    return readAll(ids);
+                }
+                ids.add(id);
+            }
+        }
+        return readAll(ids);
+    }
+
+    @Override
+    public synchronized int count() {
+        return offsetsById.size();
+    }
+
+    @Override
+    public synchronized int countByStatus(String status) {
+        TreeSet<Long> ids = idsByStatus.get(normalize(status));
+        return (ids == null) ? 0 : ids.size();
+    }
+
+    /**
+     * Rewrites the data file keeping only the latest version of each live pet.
+     */
+    public synchronized void compact() throws IOException {
+        File temp = new File(file.getPath() + ".compact");
+        TreeMap<Long, Long> newOffsets = new TreeMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            out.setLength(0);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Map.Entry<Long, Long> entry : offsetsById.entrySet()) {
+                newOffsets.put(entry.getKey(), out.getFilePointer());
+                out.write(encode(FLAG_LIVE, readAt(entry.getValue())));
+            }
+            out.getFD().sync();
+        }
+
+        // Swap the compacted file in with an atomic rename, then reopen it. The old file
+        // is closed first (Windows cannot replace an open file) and reopened if the
+        // rename fails, so the repository stays usable either way.
+        data.close();
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp.toPath());
+            throw e;
+        } finally {
+            data = new RandomAccessFile(file, "rw");
+        }
+        offsetsById.clear();
+        offsetsById.putAll(newOffsets);
+        deadRecords = 0;
+    }
+
+    /**
+     * Flushes and closes the data file.
+     */
+    public synchronized void close() throws IOException {
+        data.getFD().sync();
+        data.close();
+    }
+
+    // --- Storage ---
+
+    private long append(byte flag, Pet pet) throws IOException {
+        long offset = data.length();
+        data.seek(offset);
+        data.write(encode(flag, pet)); // Single write per record
+        data.getFD().sync();
+        return offset;
+    }
+
+    private Pet readAt(long offset) throws IOException {
+        data.seek(offset);
+        byte[] header = new byte[4];
+        data.readFully(header);
+        byte[] record = new byte[((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16)
+            | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF)];
+        data.readFully(record);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        in.readByte();
+        return decode(in);
+    }
+
+    private List<Pet> readAll(List<Long> ids) throws IOException {
+        List<Pet> pets = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            pets.add(readAt(offsetsById.get(id)));
+        }
+        return pets;
+    }
+
+    /**
+     * Encodes a record framed by its length: [int length][byte flag][long id][UTF name][UTF status][UTF image].
+     */
+    private static byte[] encode(byte flag, Pet pet) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // Length placeholder
+        out.writeByte(flag);
+        out.writeLong(pet.getId());
+        out.writeUTF(pet.getName());
+        out.writeUTF(pet.getStatus());
+        out.writeUTF(pet.getImagePath() == null ? "" : pet.getImagePath());
+        byte[] record = bytes.toByteArray();
+        int length = record.length - 4;
+        record[0] = (byte) (length >>> 24);
+        record[1] = (byte) (length >>> 16);
+        record[2] = (byte) (length >>> 8);
+        record[3] = (byte) length;
+        return record;
+    }
+
+    private static Pet decode(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        String name = in.readUTF();
+        String status = in.readUTF();
+        String imagePath = in.readUTF();
+        return new Pet(id, name, status, imagePath.isEmpty() ? null : imagePath);
+    }
+
+    /**
+     * @return The pet in a [flag][fields] record, or null if the fields do not decode to
+     *         exactly the record's length.
+     */
+    private static Pet decodeRecord(byte[] record) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1));
+        try {
+            Pet pet = decode(in);
+            return (in.available() == 0) ? pet : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Scans the data file once to rebuild the in-memory indexes.
+     */
+    private void loadIndexes() throws IOException {
+        long length = data.length();
+        long offset = HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a PawTrack pet store: " + file);
+            }
+            while (offset < length) {
+                int size = (offset + 4 <= length) ? in.readInt() : -1;
+                if (size <= 0 || offset + 4 + size > length) {
+                    // Torn write at the tail: drop it so the next append starts clean
+                    System.err.println("Truncating incomplete record at offset " + offset + " in " + file);
+                    data.setLength(offset);
+                    break;
+                }
+                byte[] record = new byte[size];
+                in.readFully(record);
+                byte flag = record[0];
+                Pet pet = decodeRecord(record);
+                if (pet == null || (flag != FLAG_LIVE && flag != FLAG_DELETED)) {
+                    // Length written but not the contents to fill it: torn as well
+                    System.err.println("Truncating corrupt record at offset " + offset + " in " + file);
+                    data.setLength(offset);
+                    break;
+                }
+
+                if (offsetsById.containsKey(pet.getId())) {
+                    deadRecords++;
+                }
+                if (flag == FLAG_DELETED) {
+                    unindex(pet.getId());
+                    deadRecords++;
+                } else {
+                    index(pet, offset);
+                }
+                nextId = Math.max(nextId, pet.getId() + 1);
+                offset += 4 + size;
+            }
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        int total = offsetsById.size() + deadRecords;
+        if (deadRecords >= COMPACT_MIN_RECORDS && deadRecords > total * COMPACT_RATIO) {
+            compact();
+        }
+    }
+
+    // --- Index maintenance ---
+
+    private void index(Pet pet, long offset) {
+        unindex(pet.getId());
+        long id = pet.getId();
+        String status = normalize(pet.getStatus());
+        String name = normalize(pet.getName());
+
+        if (offsetsById.put(id, offset) == null && orderedIds != null) {
+            if (orderedIds.isEmpty() || orderedIds.get(orderedIds.size() - 1) < id) {
+                orderedIds.add(id);
+            } else {
+                orderedIds = null;
+            }
+        }
+        idsByStatus.computeIfAbsent(status, k -> new TreeSet<>()).add(id);
+        idsByName.computeIfAbsent(name, k -> new TreeSet<>()).add(id);
+        keysById.put(id, new String[] {status, name});
+    }
+
+    private void unindex(long id) {
+        String[] keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        offsetsById.remove(id);
+        orderedIds = null;
+        removeFrom(idsByStatus, keys[0], id);
+        removeFrom(idsByName, keys[1], id);
+    }
+
+    private static void removeFrom(Map<String, TreeSet<Long>> index, String key, long id) {
+        TreeSet<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static List<Long> slice(Iterator<Long> ids, int offset, int limit) {
+        List<Long> result = new ArrayList<>();
+        int skipped = 0;
+        while (ids.hasNext() && result.size() < limit) {
+            Long id = ids.next();
+            if (skipped++ >= offset) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String value) {
+        return (value == null) ? "" : value.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,353 @@
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+/**
+ * Process-wide cache of decoded images shared by every image-loading component.
+ * Entries are keyed by source path and target size, so each scaled copy is decoded and
+ * scaled once and then reused. A full-resolution original is cached only when asked for
+ * with {@link #getImage}; scaling decodes it without keeping it.
+ * The cache keeps a memory budget and evicts the least recently used entries first.
+ * Paths that could not be read are remembered, so a missing photo is not retried on
+ * every repaint.
+ */
+public final class ImageCache {
+
+    // Default budget for decoded pixels (roughly 64 MB of ARGB data)
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final ImageCache INSTANCE = new ImageCache(DEFAULT_MAX_BYTES);
+
+    // Bounded pool for background decoding; threads are daemons and time out when idle
+    private static final int LOADER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final ExecutorService LOADER = createLoader();
+
+    private final long maxBytes;
+    private long currentBytes = 0;
+    // Access-ordered map: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, BufferedImage> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<Key, Object> loadLocks = new ConcurrentHashMap<>();
+    private final Set<String> failedPaths = ConcurrentHashMap.newKeySet(); // Until invalidated
+
+    private ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the shared cache instance.
+     */
+    public static ImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the full-resolution image at the given path, decoding it on first use.
+     * @param path A file path or an http(s) URL.
+     * @return The decoded image, or null if no registered reader can decode it.
+     * @throws IOException If the image cannot be read.
+     */
+    public BufferedImage getImage(String path) throws IOException {
+        return getScaled(path, 0, 0);
+    }
+
+    /**
+     * Returns the image at the given path scaled to exactly width x height.
+     * A width or height of 0 or less returns the original image.
+     * @return The scaled image, or null if no registered reader can decode it or it
+     *         failed to load before.
+     * @throws IOException If the image cannot be read.
+     */
+    public BufferedImage getScaled(String path, int width, int height) throws IOException {
+        boolean original = width <= 0 || height <= 0;
+        Key key = original ? new Key(path, 0, 0) : new Key(path, width, height);
+        BufferedImage cached = lookup(key);
+        if (cached != null || failedPaths.contains(path)) {
+            return cached;
+        }
+
+        // One loader per key: concurrent requests for the same image wait for the
+        // first decode instead of decoding the same file in parallel.
+        Object loadLock = loadLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (loadLock) {
+                cached = lookup(key);
+                if (cached != null || failedPaths.contains(path)) {
+                    return cached; // Decoded or failed while we waited
+                }
+
+                BufferedImage image;
+                if (original) {
+                    image = decodeOnce(path);
+                } else {
+                    BufferedImage source = scaleSource(path, width, height);
+                    image = (source == null) ? null : scale(source, width, height);
+                }
+                if (image != null) {
+                    store(key, image);
+                }
+                return image;
+            }
+        } finally {
+            loadLocks.remove(key, loadLock);
+        }
+    }
+
+    /**
+     * Picks the image to scale from. For a stored blob that is the smallest precomputed
+     * rendition covering the target size (see {@link ThumbnailPyramid}), so large photos
+     * are not decoded just to draw a small card. Anything else scales from the original.
+     * Only the scaled result is cached: a source decoded here is dropped afterwards, so one
+     * large photo cannot push every thumbnail out of the budget.
+     */
+    private BufferedImage scaleSource(String path, int width, int height) throws IOException {
+        if (ThumbnailPyramid.hasRenditions(path)) {
+            String hash = BlobStore.hashOf(path);
+            boolean missing = false;
+            for (int size : ThumbnailPyramid.SIZES) {
+                if (size < Math.max(width, height)) {
+                    continue;
+                }
+                if (!BlobStore.getDefault().hasDerived(hash, ThumbnailPyramid.renditionName(size))) {
+                    missing = true;
+                    break;
+                }
+                BufferedImage rendition = source(BlobStore.toDerivedRef(hash, ThumbnailPyramid.renditionName(size)));
+                if (rendition != null && rendition.getWidth() >= width && rendition.getHeight() >= height) {
+                    return rendition;
+                }
+            }
+            if (missing) {
+                ThumbnailPyramid.buildAsync(hash); // Stored before renditions existed
+            }
+        }
+        return source(path);
+    }
+
+    /**
+     * @return The cached original if there is one, otherwise the image decoded without
+     *         caching it; null if it cannot be decoded or failed before.
+     */
+    private BufferedImage source(String path) throws IOException {
+        BufferedImage cached = lookup(new Key(path, 0, 0));
+        if (cached != null || failedPaths.contains(path)) {
+            return cached;
+        }
+        return decodeOnce(path);
+    }
+
+    /**
+     * Decodes an image, remembering the path if it cannot be read or decoded.
+     */
+    private BufferedImage decodeOnce(String path) throws IOException {
+        BufferedImage image;
+        try {
+            image = decode(path);
+        } catch (IOException e) {
+            failedPaths.add(path);
+            throw e;
+        }
+        if (image == null) {
+            failedPaths.add(path);
+        }
+        return image;
+    }
+
+    /**
+     * Loads a scaled image off the Event Dispatch Thread and hands it to the callback on the EDT.
+     * If the image is already cached the callback still runs on the EDT, just without a decode.
+     * The callback is not invoked when the image cannot be read.
+     * @param onLoaded Receives the scaled image on the Event Dispatch Thread.
+     * @return A Future that can be cancelled if the result is no longer needed.
+     */
+    public Future<?> loadScaledAsync(String path, int width, int height, Consumer<BufferedImage> onLoaded) {
+        return LOADER.submit(() -> {
+            try {
+                BufferedImage image = getScaled(path, width, height);
+                if (image != null && !Thread.currentThread().isInterrupted()) {
+                    SwingUtilities.invokeLater(() -> onLoaded.accept(image));
+                }
+            } catch (IOException e) {
+                System.err.println("Could not load image from path: " + path);
+            }
+        });
+    }
+
+    /**
+     * Drops every cached entry for the given path, e.g. after the file has changed.
+     */
+    public synchronized void invalidate(String path) {
+        failedPaths.remove(path);
+        Iterator<Map.Entry<Key, BufferedImage>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = it.next();
+            if (entry.getKey().path.equals(path)) {
+                currentBytes -= sizeOf(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public synchronized void clear() {
+        failedPaths.clear();
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    private synchronized BufferedImage lookup(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(Key key, BufferedImage image) {
+        BufferedImage previous = entries.put(key, image);
+        if (previous != null) {
+            currentBytes -= sizeOf(previous);
+        }
+        currentBytes += sizeOf(image);
+
+        // Evict least recently used entries until we are back under budget,
+        // but always keep the entry that was just added.
+        Iterator<Map.Entry<Key, BufferedImage>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, BufferedImage> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            currentBytes -= sizeOf(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private static ExecutorService createLoader() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "image-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static BufferedImage decode(String path) throws IOException {
+        if (BlobStore.isRef(path)) {
+            try (InputStream in = BlobStore.getDefault().openRef(path)) {
+                return ImageIO.read(in);
+            }
+        }
+        if (path.startsWith("http")) {
+            return ImageIO.read(java.net.URI.create(path).toURL());
+        }
+        return ImageIO.read(new File(path));
+    }
+
+    /**
+     * Scales an image to the target size, halving in steps while downscaling so
+     * bilinear filtering keeps quality close to Image.SCALE_SMOOTH.
+     */
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+
+        do {
+            w = (w / 2 >= width) ? w / 2 : width;
+            h = (h / 2 >= height) ? h / 2 : height;
+
+            BufferedImage step = new BufferedImage(w, h, type);
+            Graphics2D g2d = step.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(current, 0, 0, w, h, null);
+            g2d.dispose();
+            current = step;
+        } while (w != width || h != height);
+
+        return current;
+    }
+
+    /**
+     * Renders an image fitted (aspect ratio kept, centred) into a width x height bitmap
+     * whose corners are rounded off, for components that blit it on every repaint.
+     * @param config Screen configuration to make the bitmap compatible with, or null.
+     */
+    static BufferedImage renderRounded(BufferedImage source, int width, int height, int cornerRadius,
+                                       GraphicsConfiguration config) {
+        double scale = Math.min((double) width / source.getWidth(), (double) height / source.getHeight());
+        int fittedWidth = Math.max(1, (int) (source.getWidth() * scale));
+        int fittedHeight = Math.max(1, (int) (source.getHeight() * scale));
+
+        BufferedImage target = (config != null)
+            ? config.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = target.createGraphics();
+        g2d.drawImage(scale(source, fittedWidth, fittedHeight),
+            (width - fittedWidth) / 2, (height - fittedHeight) / 2, null);
+        // Then keep only the pixels inside the rounded mask (antialiased, unlike a clip)
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setComposite(AlphaComposite.DstIn);
+        g2d.setColor(Color.WHITE);
+        g2d.fill(new RoundRectangle2D.Float(0, 0, width, height, cornerRadius, cornerRadius));
+        g2d.dispose();
+        return target;
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static final class Key {
+        final String path;
+        final int width;
+        final int height;
+
+        Key(String path, int width, int height) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return width == other.width && height == other.height && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, width, height);
+        }
+    }
+}
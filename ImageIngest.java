@@ -0,0 +1,262 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.SwingUtilities;
+
+/**
+ * Turns an uploaded photo into what the app keeps: a normalized copy (at most
+ * {@link #MAX_STORED_EDGE} pixels on the long edge) in the {@link BlobStore}, its
+ * {@link ThumbnailPyramid} renditions, and a display-size thumbnail.
+ *
+ * Decoding runs on a background thread and reads the file subsampled, so a 12 MP phone
+ * photo is never held in memory at full resolution. Progress and the result are
+ * delivered on the Event Dispatch Thread.
+ */
+public final class ImageIngest {
+
+    /**
+     * Receives progress and the outcome on the Event Dispatch Thread.
+     */
+    public interface Listener {
+        void progress(int percent);
+
+        void completed(Result result);
+
+        void failed(Exception error);
+    }
+
+    /**
+     * The ingested image.
+     */
+    public static final class Result {
+        private final BufferedImage thumbnail;
+        private final String storedRef;
+
+        Result(BufferedImage thumbnail, String storedRef) {
+            this.thumbnail = thumbnail;
+            this.storedRef = storedRef;
+        }
+
+        /** Fits inside the size passed to {@link #ingest}. */
+        public BufferedImage getThumbnail() {
+            return thumbnail;
+        }
+
+        /** "blob:" reference to the normalized copy in the {@link BlobStore}. */
+        public String getStoredRef() {
+            return storedRef;
+        }
+    }
+
+    static final int MAX_STORED_EDGE = 1600;
+
+    // One upload at a time is plenty; a daemon thread so it never blocks exit
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-ingest");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ImageIngest() {
+    }
+
+    /**
+     * Starts ingesting an image file in the background.
+     * @param thumbnailWidth  Maximum thumbnail width; the aspect ratio is kept.
+     * @param thumbnailHeight Maximum thumbnail height.
+     * @return A future that can be cancelled (with interruption) to abandon the upload;
+     *         a cancelled upload reports neither completion nor failure.
+     */
+    public static Future<?> ingest(File source, int thumbnailWidth, int thumbnailHeight, Listener listener) {
+        return WORKER.submit(() -> {
+            try {
+                BufferedImage decoded = decodeSubsampled(source, MAX_STORED_EDGE,
+                    percent -> report(listener, percent * 70 / 100)); // Decoding is most of the work
+
+                BufferedImage normalized = fitWithin(decoded, MAX_STORED_EDGE, MAX_STORED_EDGE);
+                checkCancelled();
+                report(listener, 75);
+
+                String stored = store(normalized); // Identical uploads share one blob
+                checkCancelled();
+                report(listener, 80);
+
+                ThumbnailPyramid.build(BlobStore.hashOf(stored), normalized);
+                checkCancelled();
+                report(listener, 90);
+
+                BufferedImage thumbnail = fitWithin(normalized, thumbnailWidth, thumbnailHeight);
+                report(listener, 100);
+                SwingUtilities.invokeLater(() -> listener.completed(new Result(thumbnail, stored)));
+            } catch (CancellationException e) {
+                // Superseded or abandoned: nothing to report
+            } catch (IOException | RuntimeException e) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    SwingUtilities.invokeLater(() -> listener.failed(e));
+                }
+            }
+        });
+    }
+
+    /**
+     * Decodes an image, skipping rows and columns so the result is not much larger than
+     * targetEdge on its long edge. Aborts the read if the thread is interrupted.
+     */
+    static BufferedImage decodeSubsampled(File source, int targetEdge, IntConsumer progress)
+            throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source)) {
+            if (input == null) {
+                throw new IOException("Cannot open " + source);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Not a supported image: " + source.getName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Subsample by whole factors while the result still covers targetEdge
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / targetEdge);
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                reader.addIIOReadProgressListener(new ProgressForwarder(progress));
+                BufferedImage image = reader.read(0, param);
+                checkCancelled(); // read() returns a partial image when aborted
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image down to fit inside width x height, keeping its aspect ratio.
+     * Images that already fit are returned unchanged.
+     */
+    static BufferedImage fitWithin(BufferedImage image, int width, int height) {
+        double scale = Math.min((double) width / image.getWidth(), (double) height / image.getHeight());
+        if (scale >= 1) {
+            return image;
+        }
+        return ImageCache.scale(image,
+            Math.max(1, (int) Math.round(image.getWidth() * scale)),
+            Math.max(1, (int) Math.round(image.getHeight() * scale)));
+    }
+
+    /**
+     * Encodes the normalized copy into the blob store.
+     * @return A "blob:" reference to it.
+     */
+    private static String store(BufferedImage image) throws IOException {
+        return BlobStore.toRef(BlobStore.getDefault().put(encode(image)));
+    }
+
+    /**
+     * Encodes an image as PNG when it has transparency, else as JPEG.
+     */
+    static byte[] encode(BufferedImage image) throws IOException {
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage output = alpha ? image : toRgb(image);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(8 * 1024, image.getWidth() * image.getHeight() / 4));
+        if (!ImageIO.write(output, alpha ? "png" : "jpg", encoded)) {
+            throw new IOException("No image writer available");
+        }
+        return encoded.toByteArray();
+    }
+
+    // JPEG cannot hold alpha or indexed colour, so flatten to plain RGB first
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = rgb.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return rgb;
+    }
+
+    private static void report(Listener listener, int percent) {
+        SwingUtilities.invokeLater(() -> listener.progress(percent));
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Forwards decode progress and aborts the read as soon as the task is cancelled.
+     */
+    private static final class ProgressForwarder implements IIOReadProgressListener {
+        private final IntConsumer progress;
+        private int lastPercent = -1;
+
+        ProgressForwarder(IntConsumer progress) {
+            this.progress = progress;
+        }
+
+        @Override
+        public void imageProgress(ImageReader source, float percentageDone) {
+            if (Thread.currentThread().isInterrupted()) {
+                source.abort();
+                return;
+            }
+            int percent = (int) percentageDone;
+            if (percent / 5 != lastPercent / 5) { // Every 5% is enough for a progress bar
+                lastPercent = percent;
+                progress.accept(percent);
+            }
+        }
+
+        @Override
+        public void imageStarted(ImageReader source, int imageIndex) {
+        }
+
+        @Override
+        public void imageComplete(ImageReader source) {
+        }
+
+        @Override
+        public void sequenceStarted(ImageReader source, int minIndex) {
+        }
+
+        @Override
+        public void sequenceComplete(ImageReader source) {
+        }
+
+        @Override
+        public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+        }
+
+        @Override
+        public void thumbnailProgress(ImageReader source, float percentageDone) {
+        }
+
+        @Override
+        public void thumbnailComplete(ImageReader source) {
+        }
+
+        @Override
+        public void readAborted(ImageReader source) {
+        }
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.function.Consumer;
+
+/**
+ * A balanced interval tree over half-open [start, end) ranges of longs.
+ *
+ * Entries are ordered by start (ties broken by a caller-supplied id) in an AVL tree, and
+ * every node also records the largest end in its subtree, so a subtree that ends before
+ * the query range can be skipped whole. Inserting, removing and finding the first overlap
+ * all take O(log n). Not thread-safe; callers lock around it.
+ */
+public class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long id;
+        final T value;
+        Node<T> left;
+        Node<T> right;
+        int height = 1;
+        long maxEnd;
+
+        Node(long start, long end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root;
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds [start, end). Overlapping entries are allowed; use {@link #firstOverlap} first
+     * to keep the tree overlap-free.
+     * @param id Distinguishes entries with the same start; must be unique per tree.
+     */
+    public void insert(long start, long end, long id, T value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Empty interval: [" + start + ", " + end + ")");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+
+    /**
+     * Removes the entry with this start and id.
+     * @return True if it was found.
+     */
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * @return The value of the earliest-starting entry overlapping [start, end), or null.
+     */
+    public T firstOverlap(long start, long end) {
+        Node<T> node = root;
+        Node<T> found = null;
+        while (node != null) {
+            // Anything overlapping must end after start; prefer the left side for the earliest
+            if (node.left != null && node.left.maxEnd > start) {
+                if (node.start < end && node.end > start) {
+                    found = node; // Candidate; the left side may still hold an earlier one
+                }
+                node = node.left;
+            } else if (node.start < end && node.end > start) {
+                return node.value;
+            } else if (node.start >= end) {
+                break; // This and everything to the right start too late
+            } else {
+                node = node.right;
+            }
+        }
+        return (found == null) ? null : found.value;
+    }
+
+    /**
+     * Visits every entry overlapping [start, end) in start order.
+     */
+    public void forEachOverlap(long start, long end, Consumer<T> action) {
+        forEachOverlap(root, start, end, action);
+    }
+
+    private void forEachOverlap(Node<T> node, long start, long end, Consumer<T> action) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        forEachOverlap(node.left, start, end, action);
+        if (node.start >= end) {
+            return;
+        }
+        if (node.end > start) {
+            action.accept(node.value);
+        }
+        forEachOverlap(node.right, start, end, action);
+    }
+
+    // --- AVL maintenance ---
+
+    private static int compare(long start, long id, Node<?> node) {
+        int order = Long.compare(start, node.start);
+        return (order != 0) ? order : Long.compare(id, node.id);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (order > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace with the in-order successor
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<T> replacement = new Node<>(successor.start, successor.end, successor.id, successor.value);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+}
@@ -0,0 +1,123 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Search-as-you-type for a text field.
+ *
+ * Keystrokes are debounced; the query then runs on a background thread, and any query
+ * still running when a newer one starts is cancelled. Only the newest query's results
+ * reach the listener, on the Event Dispatch Thread. Each query hands its hits to the
+ * next one so a query that extends the previous text only rescans the previous matches.
+ */
+public class LiveSearch {
+
+    /**
+     * Receives results on the Event Dispatch Thread.
+     */
+    public interface Listener {
+        void resultsReady(String query, SearchIndex.Hits hits, double elapsedMillis);
+    }
+
+    private static final int DEBOUNCE_MILLIS = 150;
+    private static final int RESULT_LIMIT = 100;
+
+    private final JTextField field;
+    private final String placeholder;
+    private final Listener listener;
+    private final Timer debounceTimer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> runningQuery;
+    private int generation = 0;        // Only touched on the EDT
+    private SearchIndex.Hits lastHits;  // Only touched on the search thread
+
+    /**
+     * @param placeholder Text shown while the field is empty; it is never searched for.
+     */
+    public LiveSearch(JTextField field, String placeholder, Listener listener) {
+        this.field = field;
+        this.placeholder = placeholder;
+        this.listener = listener;
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, _ -> runQuery());
+        debounceTimer.setRepeats(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not affect the query
+            }
+        });
+    }
+
+    /**
+     * Runs the current query right away, e.g. when Enter is pressed.
+     */
+    public void searchNow() {
+        debounceTimer.stop();
+        runQuery();
+    }
+
+    /**
+     * Stops searching for good, e.g. when the window holding the field is disposed: a
+     * pending keystroke is dropped, a running query is cancelled and the thread ends.
+     */
+    public void close() {
+        debounceTimer.stop();
+        generation++; // Results already on their way are ignored
+        if (runningQuery != null) {
+            runningQuery.cancel(true);
+        }
+        executor.shutdownNow();
+    }
+
+    private void runQuery() {
+        String query = field.getText().trim();
+        if (query.isEmpty() || query.equals(placeholder) || executor.isShutdown()) {
+            return;
+        }
+
+        // A newer keystroke supersedes whatever is still running
+        if (runningQuery != null) {
+            runningQuery.cancel(true);
+        }
+        int queryGeneration = ++generation;
+
+        runningQuery = executor.submit(() -> {
+            long start = System.nanoTime();
+            SearchIndex.Hits hits;
+            try {
+                hits = CatalogSearch.getInstance().search(query, RESULT_LIMIT, lastHits);
+            } catch (CancellationException e) {
+                return;
+            }
+            lastHits = hits;
+            double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            SwingUtilities.invokeLater(() -> {
+                if (queryGeneration == generation) {
+                    listener.resultsReady(query, hits, elapsedMillis);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,144 @@
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throttles password guessing with token buckets, one per username and one per workstation.
+ *
+ * Each full password check takes a token from both buckets. A user gets a few quick
+ * retries before having to wait, and a shared kiosk gets enough for a queue of staff signing
+ * in one after another. Buckets are lock-free, so checking them never blocks a login.
+ * Session resumes ({@link SessionCache#resume}) cost no hash but take a token like any other
+ * attempt, so a live session cannot be used to guess a password quickly.
+ */
+public final class LoginRateLimiter {
+
+    /** Id of the machine this app runs on, used as its workstation key. */
+    public static final String LOCAL_WORKSTATION = localWorkstation();
+
+    private static final int USER_BURST = 5;
+    private static final long USER_REFILL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int WORKSTATION_BURST = 20;
+    private static final long WORKSTATION_REFILL_MILLIS = TimeUnit.SECONDS.toMillis(3);
+    private static final int PURGE_THRESHOLD = 10_000; // Idle buckets dropped beyond this many
+
+    /**
+     * Thrown (inside a failed future) when a login is refused for going over the limit.
+     */
+    public static class ThrottledException extends Exception {
+        private final long retryAfterMillis;
+
+        public ThrottledException(long retryAfterMillis) {
+            super("Too many login attempts; retry in " + retryAfterMillis + " ms");
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+
+    /**
+     * A token bucket kept as a single "full again at" time, so one CAS both refills and takes
+     * a token. Holding n tokens means fullAt is (burst - n) refill periods from now.
+     */
+    static final class TokenBucket {
+        private final int burst;
+        private final long refillMillis;
+        private final AtomicLong fullAt = new AtomicLong(0);
+
+        TokenBucket(int burst, long refillMillis) {
+            this.burst = burst;
+            this.refillMillis = refillMillis;
+        }
+
+        /**
+         * Takes one token if there is one.
+         * @return 0 on success, otherwise how long until a token is available.
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + refillMillis;
+                long wait = next - now - burst * refillMillis;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /** Gives back one token, e.g. when a check turned out not to be needed. */
+        void release() {
+            fullAt.accumulateAndGet(refillMillis, (current, step) -> current - step);
+        }
+
+        void reset() {
+            fullAt.set(0);
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() <= now;
+        }
+    }
+
+    private final Map<String, TokenBucket> users = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> workstations = new ConcurrentHashMap<>();
+
+    /**
+     * Takes a token for a login attempt from both the user's and the workstation's bucket.
+     * @return 0 if the check may go ahead, otherwise the milliseconds to wait.
+     */
+    public long tryAcquire(String username, String workstation) {
+        long now = System.currentTimeMillis();
+        purgeIfLarge(users, now);
+        purgeIfLarge(workstations, now);
+
+        TokenBucket workstationBucket = workstations.computeIfAbsent(workstation,
+            _ -> new TokenBucket(WORKSTATION_BURST, WORKSTATION_REFILL_MILLIS));
+        long wait = workstationBucket.tryAcquire(now);
+        if (wait > 0) {
+            return wait;
+        }
+        long userWait = users.computeIfAbsent(key(username),
+            _ -> new TokenBucket(USER_BURST, USER_REFILL_MILLIS)).tryAcquire(now);
+        if (userWait > 0) {
+            workstationBucket.release(); // Refused checks should not use up the kiosk's allowance
+        }
+        return userWait;
+    }
+
+    /**
+     * Forgives a user's earlier failures once they sign in successfully.
+     */
+    public void succeeded(String username) {
+        TokenBucket bucket = users.get(key(username));
+        if (bucket != null) {
+            bucket.reset();
+        }
+    }
+
+    private static void purgeIfLarge(Map<String, TokenBucket> buckets, long now) {
+        if (buckets.size() > PURGE_THRESHOLD) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now)); // A full bucket is the same as no bucket
+        }
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String localWorkstation() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+}
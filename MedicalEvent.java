@@ -0,0 +1,57 @@
+import java.time.LocalDateTime;
+
+/**
+ * One entry in a pet's medical history, such as a vaccination, a diagnosed allergy or a
+ * visit. Times are clinic wall-clock times, to the minute.
+ */
+public class MedicalEvent {
+
+    public enum Type {
+        VISIT, VACCINATION, ALLERGY, CONDITION, TREATMENT, NOTE
+    }
+
+    private final Type type;
+    private final LocalDateTime time;
+    private final String vet;
+    private final String summary;
+    private final String notes;
+
+    /**
+     * @param vet     Who recorded or performed it; may be empty.
+     * @param summary A short description, e.g. "Rabies" for a vaccination.
+     * @param notes   Free text; may be empty.
+     */
+    public MedicalEvent(Type type, LocalDateTime time, String vet, String summary, String notes) {
+        this.type = type;
+        this.time = time.withSecond(0).withNano(0);
+        this.vet = vet;
+        this.summary = summary;
+        this.notes = notes;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public String getVet() {
+        return vet;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    @Override
+    public String toString() {
+        String kind = type.name().charAt(0) + type.name().substring(1).toLowerCase();
+        return time.toLocalDate() + " " + kind + ": " + summary + (vet.isEmpty() ? "" : " (" + vet + ")");
+    }
+}
@@ -0,0 +1,623 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Each pet's medical history as an append-only timeline of {@link MedicalEvent}s, one
+ * file per pet.
+ *
+ * New events are appended as single frames and synced, so a booking's notes are durable
+ * once saved. Every {@value #BLOCK_EVENTS} events the unsealed tail is sorted by time and
+ * sealed into a block: timestamps are delta-encoded minutes as zig-zag varints, the block
+ * is deflated, and its header (event count, first and last minute, which types it holds)
+ * is stored uncompressed in front. Opening a timeline reads only those headers and the
+ * unsealed tail, so a long-lived shelter animal opens as fast as a new one, and a range
+ * query inflates just the blocks whose time span and types can match.
+ *
+ * Notes, allergies and vaccinations that a booking repeats are recorded once: each open
+ * timeline keeps the keys of those it holds, read on first use, so checking for one
+ * does not inflate the history again.
+ *
+ * Every frame carries a CRC. A torn frame at the end of a file (e.g. after a crash) is
+ * truncated on open, and once the events already sealed into blocks are more than half
+ * of a file it is rewritten without them.
+ */
+public class MedicalHistory {
+
+    static final int BLOCK_EVENTS = 64;
+
+    private static final int MAGIC = 0x50415748; // "PAWH"
+    private static final int VERSION = 1;
+
+    private static final byte FRAME_EVENT = 1;
+    private static final byte FRAME_BLOCK = 2;
+    private static final int FRAME_HEADER = 9;  // [byte kind][int length][int crc]
+    private static final int BLOCK_HEADER = 28; // [int count][long first][long last][int types][int rawLength]
+
+    // Rewrite a file once more than half of it is events already sealed into blocks
+    private static final double COMPACT_RATIO = 0.5;
+    private static final int COMPACT_MIN_BYTES = 64 * 1024;
+
+    private static final int MAX_OPEN_TIMELINES = 32;
+    private static final MedicalEvent.Type[] TYPES = MedicalEvent.Type.values();
+    private static final Comparator<MedicalEvent> BY_TIME = Comparator.comparing(MedicalEvent::getTime);
+    private static final int RECORDED_ONCE = 1 << MedicalEvent.Type.NOTE.ordinal()
+        | 1 << MedicalEvent.Type.ALLERGY.ordinal() | 1 << MedicalEvent.Type.VACCINATION.ordinal();
+
+    private static MedicalHistory defaultHistory;
+
+    private final File directory;
+    private final Map<String, Timeline> open = new LinkedHashMap<>(16, 0.75f, true) { // LRU of open files
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Timeline> eldest) {
+            if (size() <= MAX_OPEN_TIMELINES) {
+                return false;
+            }
+            eldest.getValue().close();
+            return true;
+        }
+    };
+
+    /**
+     * A sealed block as indexed in memory; its events stay compressed on disk.
+     */
+    private static final class Block {
+        final long offset; // Of the frame
+        final int length;  // Of the frame's payload
+        final int count;
+        final long firstMinute;
+        final long lastMinute;
+        final int types;   // Bit per MedicalEvent.Type ordinal
+
+        Block(long offset, int length, int count, long firstMinute, long lastMinute, int types) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.firstMinute = firstMinute;
+            this.lastMinute = lastMinute;
+            this.types = types;
+        }
+    }
+
+    /**
+     * One pet's open file: its block headers and the events not sealed into a block yet.
+     */
+    private static final class Timeline {
+        final File file;
+        RandomAccessFile data;
+        final List<Block> blocks = new ArrayList<>();
+        final List<MedicalEvent> tail = new ArrayList<>(); // In append order
+        long tailBytes = 0; // Frames holding the tail
+        long deadBytes = 0; // Event frames already sealed into a block
+        Set<String> recorded; // Keys of the notes, allergies and vaccinations held; null until needed
+
+        Timeline(File file, RandomAccessFile data) {
+            this.file = file;
+            this.data = data;
+        }
+
+        void close() {
+            try {
+                data.close();
+            } catch (IOException e) {
+                System.err.println("Error closing medical history " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public MedicalHistory(File directory) {
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("Could not create medical history directory: " + directory);
+        }
+    }
+
+    /**
+     * Returns the shared history stored in the PawTrack data directory.
+     */
+    public static synchronized MedicalHistory getDefault() {
+        if (defaultHistory == null) {
+            MedicalHistory history = new MedicalHistory(AppData.file("history"));
+            Runtime.getRuntime().addShutdownHook(new Thread(history::close));
+            defaultHistory = history;
+        }
+        return defaultHistory;
+    }
+
+    /**
+     * The key a pet's timeline is stored under: its pet ID if it has one, otherwise its
+     * owner and name (any case).
+     */
+    public static String petKey(String petId, String ownerName, String petName) {
+        return petId.isBlank()
+            ? "pet:" + normalize(ownerName) + "|" + normalize(petName)
+            : "id:" + normalize(petId);
+    }
+
+    // --- Writing ---
+
+    /**
+     * Appends an event to the pet's timeline and syncs it to disk. Events may be appended
+     * out of time order, e.g. a vaccination given before the pet came to the shelter.
+     */
+    public synchronized void append(String petKey, MedicalEvent event) throws IOException {
+        Timeline timeline = timeline(petKey, true);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        writeEvent(payload, event, 0);
+        timeline.tailBytes += writeFrame(timeline, FRAME_EVENT, payload.toByteArray());
+        timeline.tail.add(event);
+        if (timeline.recorded != null && isRecordedOnce(event)) {
+            timeline.recorded.add(recordedKey(event));
+        }
+        if (timeline.tail.size() >= BLOCK_EVENTS) {
+            seal(timeline);
+            if (timeline.deadBytes >= COMPACT_MIN_BYTES && timeline.deadBytes > timeline.data.length() * COMPACT_RATIO) {
+                compact(timeline);
+            }
+        }
+    }
+
+    /**
+     * Appends a note, allergy or vaccination unless the pet already has it: a note with the
+     * same text, an allergy of the same name (any case) or a vaccination on the same day.
+     * The check and the append hold one lock, so concurrent bookings record it once.
+     * @return false if it was already recorded.
+     */
+    public synchronized boolean appendIfAbsent(String petKey, MedicalEvent event) throws IOException {
+        if (!isRecordedOnce(event)) {
+            throw new IllegalArgumentException("Not a note, allergy or vaccination: " + event.getType());
+        }
+        Timeline timeline = timeline(petKey, true);
+        if (timeline.recorded == null) {
+            Set<String> recorded = new HashSet<>();
+            for (MedicalEvent held : find(petKey, Long.MIN_VALUE, Long.MAX_VALUE, RECORDED_ONCE)) {
+                recorded.add(recordedKey(held));
+            }
+            timeline.recorded = recorded;
+        }
+        if (timeline.recorded.contains(recordedKey(event))) {
+            return false;
+        }
+        append(petKey, event);
+        return true;
+    }
+
+    private static boolean isRecordedOnce(MedicalEvent event) {
+        return (RECORDED_ONCE & (1 << event.getType().ordinal())) != 0;
+    }
+
+    private static String recordedKey(MedicalEvent event) {
+        return switch (event.getType()) {
+            case NOTE -> "note:" + event.getNotes();
+            case ALLERGY -> "allergy:" + normalize(event.getSummary());
+            default -> "vaccination:" + event.getTime().toLocalDate();
+        };
+    }
+
+    /**
+     * Closes every open timeline file.
+     */
+    public synchronized void close() {
+        for (Timeline timeline : open.values()) {
+            timeline.close();
+        }
+        open.clear();
+    }
+
+    // --- Queries ---
+
+    /**
+     * Returns the pet's events of the given types from from (inclusive) to to (exclusive),
+     * oldest first. Only blocks that can hold a match are decompressed.
+     */
+    public synchronized List<MedicalEvent> find(String petKey, LocalDateTime from, LocalDateTime to,
+                                                Set<MedicalEvent.Type> types) throws IOException {
+        int mask = 0;
+        for (MedicalEvent.Type type : types) {
+            mask |= 1 << type.ordinal();
+        }
+        return find(petKey, minuteOf(from), minuteOf(to), mask);
+    }
+
+    /**
+     * @return The pet's whole history, oldest first.
+     */
+    public synchronized List<MedicalEvent> findAll(String petKey) throws IOException {
+        return find(petKey, Long.MIN_VALUE, Long.MAX_VALUE, -1);
+    }
+
+    public synchronized int count(String petKey) throws IOException {
+        Timeline timeline = timeline(petKey, false);
+        if (timeline == null) {
+            return 0;
+        }
+        int count = timeline.tail.size();
+        for (Block block : timeline.blocks) {
+            count += block.count;
+        }
+        return count;
+    }
+
+    private List<MedicalEvent> find(String petKey, long fromMinute, long toMinute, int mask) throws IOException {
+        List<MedicalEvent> found = new ArrayList<>();
+        Timeline timeline = timeline(petKey, false);
+        if (timeline == null) {
+            return found;
+        }
+        for (Block block : timeline.blocks) {
+            if (block.lastMinute >= fromMinute && block.firstMinute < toMinute && (block.types & mask) != 0) {
+                for (MedicalEvent event : readBlock(timeline, block)) {
+                    if (matches(event, fromMinute, toMinute, mask)) {
+                        found.add(event);
+                    }
+                }
+            }
+        }
+        for (MedicalEvent event : timeline.tail) {
+            if (matches(event, fromMinute, toMinute, mask)) {
+                found.add(event);
+            }
+        }
+        found.sort(BY_TIME);
+        return found;
+    }
+
+    private static boolean matches(MedicalEvent event, long fromMinute, long toMinute, int mask) {
+        long minute = minuteOf(event.getTime());
+        return minute >= fromMinute && minute < toMinute && (mask & (1 << event.getType().ordinal())) != 0;
+    }
+
+    // --- Storage ---
+
+    /**
+     * Returns the pet's open timeline, opening its file if needed.
+     * @return null if the pet has no history and create is false.
+     */
+    private Timeline timeline(String petKey, boolean create) throws IOException {
+        Timeline timeline = open.get(petKey);
+        if (timeline != null) {
+            return timeline;
+        }
+        File file = new File(directory, fileName(petKey));
+        if (!create && !file.exists()) {
+            return null;
+        }
+        RandomAccessFile data = new RandomAccessFile(file, "rw");
+        timeline = new Timeline(file, data);
+        try {
+            if (data.length() == 0) {
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeUTF(petKey);
+            } else {
+                load(timeline, petKey);
+            }
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+        open.put(petKey, timeline);
+        return timeline;
+    }
+
+    /**
+     * Reads the block headers and the unsealed events, skipping over the compressed
+     * blocks themselves.
+     */
+    private static void load(Timeline timeline, String petKey) throws IOException {
+        RandomAccessFile data = timeline.data;
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a PawTrack medical history: " + timeline.file);
+        }
+        String storedKey = data.readUTF();
+        if (!storedKey.equals(petKey)) {
+            throw new IOException(timeline.file + " holds the history of " + storedKey + ", not " + petKey);
+        }
+        long length = data.length();
+        long offset = data.getFilePointer();
+        byte[] header = new byte[FRAME_HEADER + BLOCK_HEADER];
+        while (offset < length) {
+            ByteBuffer frame = (offset + FRAME_HEADER <= length) ? read(data, offset, header, FRAME_HEADER) : null;
+            byte kind = (frame == null) ? 0 : frame.get();
+            int size = (frame == null) ? -1 : frame.getInt();
+            int crc = (frame == null) ? 0 : frame.getInt();
+            long end = offset + FRAME_HEADER + size;
+            if (size <= 0 || end > length || (kind != FRAME_EVENT && kind != FRAME_BLOCK)
+                    || (kind == FRAME_BLOCK && size < BLOCK_HEADER)) {
+                truncate(timeline, offset);
+                break;
+            }
+            if (kind == FRAME_BLOCK) {
+                if (end == length && !checkCrc(data, offset + FRAME_HEADER, size, crc)) {
+                    truncate(timeline, offset); // Sealing was cut short; the tail's own frames still stand
+                    break;
+                }
+                ByteBuffer block = read(data, offset + FRAME_HEADER, header, BLOCK_HEADER);
+                timeline.blocks.add(new Block(offset, size, block.getInt(), block.getLong(), block.getLong(),
+                    block.getInt()));
+                timeline.deadBytes += timeline.tailBytes;
+                timeline.tailBytes = 0;
+                timeline.tail.clear();
+            } else {
+                byte[] payload = new byte[size];
+                data.seek(offset + FRAME_HEADER);
+                data.readFully(payload);
+                if (crc(payload) == crc) {
+                    timeline.tail.add(readEvent(ByteBuffer.wrap(payload), 0));
+                    timeline.tailBytes += FRAME_HEADER + size;
+                } else if (end == length) {
+                    truncate(timeline, offset);
+                    break;
+                } else {
+                    System.err.println("Skipping corrupt medical event at offset " + offset + " in " + timeline.file);
+                    timeline.deadBytes += FRAME_HEADER + size;
+                }
+            }
+            offset = end;
+        }
+    }
+
+    private static void truncate(Timeline timeline, long offset) throws IOException {
+        // Torn write at the tail: drop it so the next append starts clean
+        System.err.println("Truncating incomplete medical record at offset " + offset + " in " + timeline.file);
+        timeline.data.setLength(offset);
+    }
+
+    private static List<MedicalEvent> readBlock(Timeline timeline, Block block) throws IOException {
+        byte[] payload = new byte[block.length];
+        timeline.data.seek(block.offset + 5);
+        int crc = timeline.data.readInt();
+        timeline.data.readFully(payload);
+        if (crc(payload) != crc) {
+            throw new IOException("Corrupt medical history block at offset " + block.offset + " in " + timeline.file);
+        }
+        byte[] raw = new byte[ByteBuffer.wrap(payload).getInt(24)]; // The rest of the header is in the index
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(payload, BLOCK_HEADER, payload.length - BLOCK_HEADER);
+            if (inflater.inflate(raw) != raw.length) {
+                throw new IOException("Short medical history block at offset " + block.offset + " in " + timeline.file);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt medical history block at offset " + block.offset + " in " + timeline.file, e);
+        } finally {
+            inflater.end();
+        }
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        List<MedicalEvent> events = new ArrayList<>(block.count);
+        long minute = block.firstMinute;
+        for (int i = 0; i < block.count; i++) {
+            MedicalEvent event = readEvent(in, minute);
+            minute = minuteOf(event.getTime());
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Writes the tail as one compressed block, which supersedes the tail's event frames.
+     */
+    private static void seal(Timeline timeline) throws IOException {
+        List<MedicalEvent> events = new ArrayList<>(timeline.tail);
+        events.sort(BY_TIME); // Small, non-negative deltas compress best
+        long firstMinute = minuteOf(events.get(0).getTime());
+        long previous = firstMinute;
+        int types = 0;
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(events.size() * 48);
+        for (MedicalEvent event : events) {
+            writeEvent(raw, event, previous);
+            previous = minuteOf(event.getTime());
+            types |= 1 << event.getType().ordinal();
+        }
+        byte[] compressed = deflate(raw.toByteArray());
+        ByteBuffer payload = ByteBuffer.allocate(BLOCK_HEADER + compressed.length)
+            .putInt(events.size()).putLong(firstMinute).putLong(previous).putInt(types).putInt(raw.size())
+            .put(compressed);
+        long offset = timeline.data.length();
+        writeFrame(timeline, FRAME_BLOCK, payload.array());
+        timeline.blocks.add(new Block(offset, payload.capacity(), events.size(), firstMinute, previous, types));
+        timeline.deadBytes += timeline.tailBytes;
+        timeline.tailBytes = 0;
+        timeline.tail.clear();
+    }
+
+    /**
+     * Rewrites the file with just its blocks and unsealed events, then swaps it in with an
+     * atomic rename.
+     */
+    private static void compact(Timeline timeline) throws IOException {
+        File temp = new File(timeline.file.getPath() + ".compact");
+        List<Block> moved = new ArrayList<>(timeline.blocks.size());
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            out.setLength(0);
+            timeline.data.seek(0);
+            out.writeInt(timeline.data.readInt()); // Magic
+            out.writeInt(timeline.data.readInt()); // Version
+            out.writeUTF(timeline.data.readUTF()); // Pet key
+            for (Block block : timeline.blocks) {
+                byte[] frame = new byte[FRAME_HEADER + block.length];
+                timeline.data.seek(block.offset);
+                timeline.data.readFully(frame);
+                moved.add(new Block(out.getFilePointer(), block.length, block.count, block.firstMinute,
+                    block.lastMinute, block.types));
+                out.write(frame);
+            }
+            for (MedicalEvent event : timeline.tail) {
+                ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+                writeEvent(payload, event, 0);
+                out.write(frame(FRAME_EVENT, payload.toByteArray()));
+            }
+            out.getFD().sync();
+        }
+
+        timeline.data.close();
+        Files.move(temp.toPath(), timeline.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        timeline.data = new RandomAccessFile(timeline.file, "rw");
+        timeline.blocks.clear();
+        timeline.blocks.addAll(moved);
+        timeline.deadBytes = 0;
+    }
+
+    /**
+     * @return The frame's size on disk.
+     */
+    private static int writeFrame(Timeline timeline, byte kind, byte[] payload) throws IOException {
+        byte[] frame = frame(kind, payload);
+        timeline.data.seek(timeline.data.length());
+        timeline.data.write(frame); // Single write per frame
+        timeline.data.getFD().sync();
+        return frame.length;
+    }
+
+    private static byte[] frame(byte kind, byte[] payload) {
+        return ByteBuffer.allocate(FRAME_HEADER + payload.length)
+            .put(kind).putInt(payload.length).putInt(crc(payload)).put(payload).array();
+    }
+
+    private static boolean checkCrc(RandomAccessFile data, long offset, int length, int crc) throws IOException {
+        byte[] payload = new byte[length];
+        data.seek(offset);
+        data.readFully(payload);
+        return crc(payload) == crc;
+    }
+
+    private static ByteBuffer read(RandomAccessFile data, long offset, byte[] buffer, int length) throws IOException {
+        data.seek(offset);
+        data.readFully(buffer, 0, length);
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    // --- Encoding ---
+
+    /**
+     * Encodes an event as [varint minute delta][byte type][string vet][string summary][string notes],
+     * the delta zig-zag encoded so events dated earlier than the previous one stay short.
+     */
+    private static void writeEvent(ByteArrayOutputStream out, MedicalEvent event, long previousMinute) {
+        long delta = minuteOf(event.getTime()) - previousMinute;
+        writeVarLong(out, (delta << 1) ^ (delta >> 63));
+        out.write(event.getType().ordinal());
+        writeString(out, event.getVet());
+        writeString(out, event.getSummary());
+        writeString(out, event.getNotes());
+    }
+
+    private static MedicalEvent readEvent(ByteBuffer in, long previousMinute) throws IOException {
+        try {
+            long zigzag = readVarLong(in);
+            long minute = previousMinute + ((zigzag >>> 1) ^ -(zigzag & 1));
+            int type = in.get();
+            if (type < 0 || type >= TYPES.length) {
+                throw new IOException("Unknown medical event type " + type);
+            }
+            return new MedicalEvent(TYPES[type], timeOf(minute), readString(in), readString(in), readString(in));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated medical event", e);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true); // Frames have their own CRC
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    // Minutes since 1970 on the clinic's wall clock; time zones play no part in a pet's history
+    private static long minuteOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime timeOf(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static String fileName(String petKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(petKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + ".hist";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,226 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Password hashing with scrypt (RFC 7914), a memory-hard KDF: each hash needs
+ * 128 * r * 2^logN bytes of scratch memory, which makes guessing on GPUs or ASICs expensive.
+ *
+ * Hashes are self-describing strings, "scrypt$logN$r$p$salt$hash" (Base64 salt and hash),
+ * so the cost can be raised later without invalidating stored passwords; see
+ * {@link #needsRehash(String)}. Verification compares in constant time.
+ */
+public final class PasswordHasher {
+
+    /** 2^14 * 8 * 128 bytes = 16 MiB per hash, roughly 50 ms on a desktop. */
+    public static final int DEFAULT_LOG_N = 14;
+    public static final int DEFAULT_R = 8;
+    public static final int DEFAULT_P = 1;
+
+    private static final String PREFIX = "scrypt";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    // Upper bounds for parameters read back from stored hashes, so a tampered record cannot
+    // make a login allocate gigabytes
+    private static final int MAX_LOG_N = 20;
+    private static final int MAX_R = 16;
+    private static final int MAX_P = 4;
+
+    private final int logN;
+    private final int r;
+    private final int p;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher() {
+        this(DEFAULT_LOG_N, DEFAULT_R, DEFAULT_P);
+    }
+
+    /**
+     * @param logN Log2 of the CPU/memory cost; each step up doubles both.
+     * @param r    Block size factor; memory grows linearly with it.
+     * @param p    Parallelization factor; work grows linearly with it, memory does not.
+     */
+    public PasswordHasher(int logN, int r, int p) {
+        checkParameters(logN, r, p);
+        this.logN = logN;
+        this.r = r;
+        this.p = p;
+    }
+
+    /**
+     * Hashes a password with a fresh random salt.
+     */
+    public String hash(char[] password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] secret = toBytes(password);
+        try {
+            byte[] hash = scrypt(secret, salt, logN, r, p, HASH_BYTES);
+            Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+            return PREFIX + "$" + logN + "$" + r + "$" + p + "$"
+                + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+        } finally {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    /**
+     * Checks a password against a stored hash. Takes the same time whether the password
+     * is right or wrong; a malformed stored hash never matches.
+     */
+    public boolean verify(char[] password, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 6 || !parts[0].equals(PREFIX)) {
+            return false;
+        }
+        byte[] secret = toBytes(password);
+        try {
+            int storedLogN = Integer.parseInt(parts[1]);
+            int storedR = Integer.parseInt(parts[2]);
+            int storedP = Integer.parseInt(parts[3]);
+            checkParameters(storedLogN, storedR, storedP);
+            byte[] salt = Base64.getDecoder().decode(parts[4]);
+            byte[] expected = Base64.getDecoder().decode(parts[5]);
+            byte[] actual = scrypt(secret, salt, storedLogN, storedR, storedP, expected.length);
+            return MessageDigest.isEqual(actual, expected); // Constant-time
+        } catch (IllegalArgumentException e) {
+            return false;
+        } finally {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    /**
+     * @return True if a stored hash was made with different parameters than this hasher's,
+     *         so it should be replaced after the next successful login.
+     */
+    public boolean needsRehash(String stored) {
+        return !stored.startsWith(PREFIX + "$" + logN + "$" + r + "$" + p + "$");
+    }
+
+    private static void checkParameters(int logN, int r, int p) {
+        if (logN < 1 || logN > MAX_LOG_N || r < 1 || r > MAX_R || p < 1 || p > MAX_P) {
+            throw new IllegalArgumentException("Unsupported scrypt parameters: logN=" + logN + " r=" + r + " p=" + p);
+        }
+    }
+
+    private static byte[] toBytes(char[] password) {
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        if (encoded.hasArray()) {
+            Arrays.fill(encoded.array(), (byte) 0);
+        }
+        return bytes;
+    }
+
+    // --- scrypt ---
+
+    static byte[] scrypt(byte[] password, byte[] salt, int logN, int r, int p, int length) {
+        int n = 1 << logN;
+        int blockInts = 32 * r; // 128 * r bytes
+        byte[] blocks = pbkdf2Sha256(password, salt, p * 128 * r);
+
+        int[] x = new int[blockInts];
+        int[] scratch = new int[blockInts];
+        int[] v = new int[n * blockInts];
+        for (int i = 0; i < p; i++) {
+            ByteBuffer block = ByteBuffer.wrap(blocks, i * 128 * r, 128 * r).order(ByteOrder.LITTLE_ENDIAN);
+            block.mark();
+            block.asIntBuffer().get(x);
+            roMix(x, v, scratch, n, r);
+            block.reset();
+            block.asIntBuffer().put(x);
+        }
+        Arrays.fill(v, 0);
+        return pbkdf2Sha256(password, blocks, length);
+    }
+
+    /** The memory-hard step: fill v with successive states, then read it back in data-dependent order. */
+    private static void roMix(int[] x, int[] v, int[] scratch, int n, int r) {
+        int blockInts = x.length;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(x, 0, v, i * blockInts, blockInts);
+            blockMix(x, scratch, r);
+        }
+        for (int i = 0; i < n; i++) {
+            int j = x[(2 * r - 1) * 16] & (n - 1); // Integerify
+            int offset = j * blockInts;
+            for (int k = 0; k < blockInts; k++) {
+                x[k] ^= v[offset + k];
+            }
+            blockMix(x, scratch, r);
+        }
+    }
+
+    private static void blockMix(int[] b, int[] y, int r) {
+        int[] x = new int[16];
+        System.arraycopy(b, (2 * r - 1) * 16, x, 0, 16);
+        for (int i = 0; i < 2 * r; i++) {
+            for (int k = 0; k < 16; k++) {
+                x[k] ^= b[i * 16 + k];
+            }
+            salsa208(x);
+            // Even-numbered outputs go to the first half, odd-numbered to the second
+            System.arraycopy(x, 0, y, ((i & 1) * r + (i >> 1)) * 16, 16);
+        }
+        System.arraycopy(y, 0, b, 0, b.length);
+    }
+
+    private static void salsa208(int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3], x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11], x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+        for (int i = 0; i < 8; i += 2) {
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);   x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);  x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);    x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);  x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);  x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);  x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);  x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);  x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);    x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);   x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);    x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);   x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);  x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);  x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7); x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13); x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+        b[0] += x0; b[1] += x1; b[2] += x2; b[3] += x3; b[4] += x4; b[5] += x5; b[6] += x6; b[7] += x7;
+        b[8] += x8; b[9] += x9; b[10] += x10; b[11] += x11; b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+
+    /** PBKDF2-HMAC-SHA256 with a single iteration, as scrypt uses it. */
+    private static byte[] pbkdf2Sha256(byte[] password, byte[] salt, int length) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            // HMAC zero-pads keys, so one zero byte is the same key as an empty password
+            mac.init(new SecretKeySpec(password.length == 0 ? new byte[1] : password, "HmacSHA256"));
+            byte[] output = new byte[length];
+            byte[] counter = new byte[4];
+            for (int block = 1, offset = 0; offset < length; block++, offset += 32) {
+                counter[0] = (byte) (block >>> 24);
+                counter[1] = (byte) (block >>> 16);
+                counter[2] = (byte) (block >>> 8);
+                counter[3] = (byte) block;
+                mac.update(salt);
+                byte[] digest = mac.doFinal(counter);
+                System.arraycopy(digest, 0, output, offset, Math.min(32, length - offset));
+            }
+            return output;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e); // Required on every JVM
+        }
+    }
+}
@@ -1,7 +1,16 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * A dedicated panel for managing and displaying pets in a grid layout.
@@ -16,13 +25,36 @@ public class PawManagement extends JPanel {
         setLayout(new BorderLayout());
         setBackground(MAIN_BACKGROUND);
 
-        // --- Create the main grid panel for pet cards ---
-        JPanel imageGridPanel = new JPanel(new GridLayout(0, 3, 20, 20)); // 0 rows, 3 columns, 20px gaps
+        // --- Create the virtualized grid; only visible cards are built ---
+        VirtualPetGrid imageGridPanel = new VirtualPetGrid(3, 20); // 3 columns, 20px gaps
         imageGridPanel.setBackground(MAIN_BACKGROUND);
-        imageGridPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        // --- Sample Data ---
-        // In a real application, this data would be loaded from a database or API.
+        // --- Load the catalog a page at a time from the local pet store ---
+        try {
+            PetRepository repository = FilePetRepository.getDefault();
+            if (repository.count() == 0) {
+                seedSampleData(repository);
+            }
+            imageGridPanel.setSource(new PagedPetSource(repository, 60));
+        } catch (IOException e) {
+            System.err.println("Could not open pet store: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "Could not open the pet catalog.", "Paw Management", JOptionPane.ERROR_MESSAGE);
+        }
+
+        // --- Make the grid scrollable ---
+        JScrollPane scrollPane = new JScrollPane(imageGridPanel);
+        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16); // Smoother scrolling
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Fills an empty store with the sample pets so a fresh install has something to show.
+     */
+    private void seedSampleData(PetRepository repository) throws IOException {
         String[][] petData = {
             {"Paul", "Available", "c:/Users/agust/Documents/Visual Studio Code/Paw Track Management/Paw-Track/image/DOG.png"},
             {"Lucy", "Adopted", "c:/Users/agust/Documents/Visual Studio Code/Paw Track Management/Paw-Track/image/DOG.png"},
@@ -34,105 +66,372 @@ public class PawManagement extends JPanel {
             {"Molly", "Available", "c:/Users/agust/Documents/Visual Studio Code/Paw Track Management/Paw-Track/image/DOG.png"},
             {"Zoe", "Available", "c:/Users/agust/Documents/Visual Studio Code/Paw Track Management/Paw-Track/image/DOG.png"}
         };
-
-        // --- Create and add pet cards to the grid ---
+        // Photos go into the blob store, so the pets sharing DOG.png all point at one copy
+        BlobStore blobs = BlobStore.getDefault();
         for (String[] data : petData) {
-            imageGridPanel.add(createPetCard(data[2], data[0], data[1]));
+            String image = blobs.importFile(data[2]);
+            if (ThumbnailPyramid.hasRenditions(image)) {
+                ThumbnailPyramid.buildAsync(BlobStore.hashOf(image));
+            }
+            CatalogSearch.getInstance().indexPet(repository.save(new Pet(data[0], data[1], image)));
         }
+    }
+}
 
-        // --- Make the grid scrollable ---
-        JScrollPane scrollPane = new JScrollPane(imageGridPanel);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-        scrollPane.getVerticalScrollBar().setUnitIncrement(16); // Smoother scrolling
-        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+/**
+ * Grid source that pulls pets from a repository one page at a time and keeps
+ * a handful of recently used pages in memory.
+ */
+class PagedPetSource implements VirtualPetGrid.Source {
 
-        add(scrollPane, BorderLayout.CENTER);
+    private static final int MAX_CACHED_PAGES = 8;
+
+    private final PetRepository repository;
+    private final int pageSize;
+    private final int size;
+    private final LinkedHashMap<Integer, List<Pet>> pages = new LinkedHashMap<Integer, List<Pet>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Pet>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    public PagedPetSource(PetRepository repository, int pageSize) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+        this.size = repository.count();
+    }
+
+    @Override
+    public int size() {
+        return size;
     }
 
+    @Override
+    public Pet get(int index) {
+        int pageNumber = index / pageSize;
+        List<Pet> page = pages.get(pageNumber);
+        if (page == null) {
+            try {
+                page = repository.findPage(pageNumber * pageSize, pageSize);
+            } catch (IOException e) {
+                System.err.println("Could not load pet page " + pageNumber + ": " + e.getMessage());
+                page = Collections.emptyList();
+            }
+            pages.put(pageNumber, page);
+        }
+        int offset = index % pageSize;
+        return (offset < page.size()) ? page.get(offset) : null;
+    }
+}
+
+/**
+ * A scrollable grid that only creates and lays out the pet cards intersecting the
+ * viewport (plus a small overscan). Cards that scroll out of view are recycled
+ * and re-bound to the pets scrolling into view.
+ */
+class VirtualPetGrid extends JPanel implements Scrollable {
+
     /**
-     * Creates a single "card" for a pet, including its image, details, and action buttons.
-     * @param imagePath The file path to the pet's image.
-     * @param petName   The name of the pet.
-     * @param status    The adoption status (e.g., "Available", "Adopted").
-     * @return A JPanel representing the pet card.
+     * Supplies the pets shown by the grid by index.
      */
-    private JPanel createPetCard(String imagePath, String petName, String status) {
-        JPanel cardPanel = new JPanel(new BorderLayout(0, 10));
-        cardPanel.setBackground(Color.WHITE);
-        cardPanel.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+    interface Source {
+        int size();
+        Pet get(int index);
+    }
 
-        // --- Image Area ---
-        JLabel imageLabel;
-        if (imagePath != null && new File(imagePath).exists()) {
-            ImageIcon icon = new ImageIcon(imagePath);
-            Image scaledImage = icon.getImage().getScaledInstance(250, 200, Image.SCALE_SMOOTH);
-            imageLabel = new JLabel(new ImageIcon(scaledImage));
-        } else {
-            // Placeholder icon if the image is not found
-            imageLabel = new JLabel("🐾", SwingConstants.CENTER);
-            imageLabel.setFont(new Font("SansSerif", Font.BOLD, 100));
-            imageLabel.setForeground(new Color(230, 230, 230));
+    private static final int OVERSCAN_ROWS = 1;
+
+    private final int columns;
+    private final int gap;
+    private final int cardHeight;
+
+    private Source source;
+    private final Map<Integer, PetCard> activeCards = new HashMap<>();
+    private final Deque<PetCard> recycledCards = new ArrayDeque<>();
+    private JViewport viewport;
+
+    public VirtualPetGrid(int columns, int gap) {
+        super(null); // Cards are positioned manually
+        this.columns = columns;
+        this.gap = gap;
+        this.cardHeight = new PetCard(this).getPreferredSize().height;
+        setBorder(BorderFactory.createEmptyBorder(gap, gap, gap, gap));
+    }
+
+    /**
+     * Replaces the data shown in the grid and rebinds the visible cards.
+     */
+    public void setSource(Source source) {
+        this.source = source;
+        for (PetCard card : activeCards.values()) {
+            recycle(card);
+        }
+        activeCards.clear();
+        revalidate();
+        updateVisibleCards();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = getParent();
+        if (parent instanceof JViewport && parent != viewport) {
+            viewport = (JViewport) parent;
+            viewport.addChangeListener(_ -> updateVisibleCards());
+        }
+    }
+
+    @Override
+    public void doLayout() {
+        // Column width depends on our width, so every card's bounds must be refreshed
+        for (Map.Entry<Integer, PetCard> entry : activeCards.entrySet()) {
+            entry.getValue().setBounds(cellBounds(entry.getKey()));
         }
+        updateVisibleCards();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Insets insets = getInsets();
+        int rows = rowCount();
+        int height = insets.top + insets.bottom + rows * cardHeight + Math.max(0, rows - 1) * gap;
+        int width = insets.left + insets.right + columns * 250 + (columns - 1) * gap;
+        return new Dimension(width, height);
+    }
+
+    /**
+     * Binds cards to the pets inside the visible rows and recycles the rest.
+     */
+    private void updateVisibleCards() {
+        int count = (source == null) ? 0 : source.size();
+        Rectangle visible = (viewport != null) ? viewport.getViewRect() : getVisibleRect();
+        Insets insets = getInsets();
+        int rowStride = cardHeight + gap;
+
+        int firstRow = Math.max(0, (visible.y - insets.top) / rowStride - OVERSCAN_ROWS);
+        int lastRow = (visible.y + visible.height - insets.top) / rowStride + OVERSCAN_ROWS;
+        int firstIndex = firstRow * columns;
+        int lastIndex = Math.min(count - 1, (lastRow + 1) * columns - 1);
+
+        // Recycle cards that left the window
+        Iterator<Map.Entry<Integer, PetCard>> it = activeCards.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, PetCard> entry = it.next();
+            int index = entry.getKey();
+            if (index < firstIndex || index > lastIndex) {
+                recycle(entry.getValue());
+                it.remove();
+            }
+        }
+
+        // Bind cards for newly visible pets
+        for (int index = firstIndex; index <= lastIndex; index++) {
+            if (activeCards.containsKey(index)) {
+                continue;
+            }
+            PetCard card = recycledCards.poll();
+            if (card == null) {
+                card = new PetCard(this);
+                add(card);
+            }
+            card.bind(source.get(index));
+            card.setBounds(cellBounds(index));
+            card.setVisible(true);
+            activeCards.put(index, card);
+        }
+        repaint();
+    }
+
+    private void recycle(PetCard card) {
+        card.setVisible(false);
+        card.unbind();
+        recycledCards.push(card);
+    }
+
+    private Rectangle cellBounds(int index) {
+        Insets insets = getInsets();
+        int availableWidth = getWidth() - insets.left - insets.right - (columns - 1) * gap;
+        int cellWidth = Math.max(0, availableWidth / columns);
+        int row = index / columns;
+        int column = index % columns;
+        return new Rectangle(
+            insets.left + column * (cellWidth + gap),
+            insets.top + row * (cardHeight + gap),
+            cellWidth,
+            cardHeight);
+    }
+
+    private int rowCount() {
+        int count = (source == null) ? 0 : source.size();
+        return (count + columns - 1) / columns;
+    }
+
+    // --- Scrollable ---
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return Math.max(16, visibleRect.height - cardHeight);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
+
+/**
+ * A reusable "card" for a pet, including its image, details, and action buttons.
+ * The same card instance is re-bound to different pets as the grid scrolls.
+ */
+class PetCard extends JPanel {
+
+    private final JLabel imageLabel;
+    private final JLabel nameLabel;
+    private final JLabel statusLabel;
+
+    private Pet pet;
+    private Future<?> pendingImage;
+
+    public PetCard(Component dialogParent) {
+        super(new BorderLayout(0, 10));
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+
+        // --- Image Area ---
+        imageLabel = new JLabel("", SwingConstants.CENTER);
+        imageLabel.setFont(new Font("SansSerif", Font.BOLD, 100));
+        imageLabel.setForeground(new Color(230, 230, 230));
         imageLabel.setPreferredSize(new Dimension(250, 200));
-        
+        showPlaceholder();
+
         // --- Details Panel (Name and Status) ---
         JPanel detailsPanel = new JPanel();
         detailsPanel.setLayout(new BoxLayout(detailsPanel, BoxLayout.Y_AXIS));
         detailsPanel.setBackground(Color.WHITE);
         detailsPanel.setBorder(new EmptyBorder(10, 15, 10, 15));
 
-        JLabel nameLabel = new JLabel(petName);
+        nameLabel = new JLabel(" ");
         nameLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
         nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        JLabel statusLabel = new JLabel(status);
+        statusLabel = new JLabel(" ");
         statusLabel.setFont(new Font("SansSerif", Font.ITALIC, 14));
         statusLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        // Set status color based on the status text
-        switch (status.toLowerCase()) {
-            case "available":
-                statusLabel.setForeground(new Color(40, 167, 69)); // Green
-                break;
-            case "adopted":
-                statusLabel.setForeground(new Color(220, 53, 69)); // Red
-                break;
-            case "in foster":
-                statusLabel.setForeground(new Color(255, 193, 7)); // Orange/Yellow
-                break;
-            default:
-                statusLabel.setForeground(Color.DARK_GRAY);
-                break;
-        }
-        
         detailsPanel.add(nameLabel);
         detailsPanel.add(Box.createRigidArea(new Dimension(0, 5)));
         detailsPanel.add(statusLabel);
-        
+
         // --- Buttons Panel ---
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
         buttonPanel.setBackground(Color.WHITE);
         buttonPanel.setBorder(new EmptyBorder(0, 0, 10, 5));
 
+        // Listeners read the currently bound pet, so they survive recycling
         JButton viewButton = new JButton("View");
         viewButton.setFont(new Font("SansSerif", Font.PLAIN, 14));
-        viewButton.addActionListener(_ -> JOptionPane.showMessageDialog(this, "Displaying details for " + petName));
+        viewButton.addActionListener(_ -> {
+            if (pet != null) {
+                JOptionPane.showMessageDialog(dialogParent, "Displaying details for " + pet.getName());
+            }
+        });
 
         JButton adoptButton = new JButton("Adopt");
         adoptButton.setFont(new Font("SansSerif", Font.BOLD, 14));
         adoptButton.setBackground(new Color(23, 162, 184)); // Teal
         adoptButton.setForeground(Color.WHITE);
-        adoptButton.addActionListener(_ -> JOptionPane.showMessageDialog(this, "Starting adoption process for " + petName));
-        
+        adoptButton.addActionListener(_ -> {
+            if (pet != null) {
+                JOptionPane.showMessageDialog(dialogParent, "Starting adoption process for " + pet.getName());
+            }
+        });
+
         buttonPanel.add(viewButton);
         buttonPanel.add(adoptButton);
 
         // --- Assemble the Card ---
-        cardPanel.add(imageLabel, BorderLayout.NORTH);
-        cardPanel.add(detailsPanel, BorderLayout.CENTER);
-        cardPanel.add(buttonPanel, BorderLayout.SOUTH);
+        add(imageLabel, BorderLayout.NORTH);
+        add(detailsPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Shows the given pet on this card. The photo is loaded in the background and
+     * swapped in only if the card is still bound to the same pet.
+     */
+    public void bind(Pet newPet) {
+        if (newPet == pet) {
+            return;
+        }
+        unbind();
+        this.pet = newPet;
+        if (newPet == null) {
+            nameLabel.setText(" ");
+            statusLabel.setText(" ");
+            return;
+        }
+
+        nameLabel.setText(newPet.getName());
+        statusLabel.setText(newPet.getStatus());
+
+        // Set status color based on the status text
+        switch (newPet.getStatus().toLowerCase()) {
+            case "available":
+                statusLabel.setForeground(new Color(40, 167, 69)); // Green
+                break;
+            case "adopted":
+                statusLabel.setForeground(new Color(220, 53, 69)); // Red
+                break;
+            case "in foster":
+                statusLabel.setForeground(new Color(255, 193, 7)); // Orange/Yellow
+                break;
+            default:
+                statusLabel.setForeground(Color.DARK_GRAY);
+                break;
+        }
+
+        String imagePath = newPet.getImagePath();
+        if (imagePath != null) {
+            pendingImage = ImageCache.getInstance().loadScaledAsync(imagePath, 250, 200, image -> {
+                if (pet == newPet) {
+                    imageLabel.setText(null);
+                    imageLabel.setIcon(new ImageIcon(image));
+                }
+            });
+        }
+    }
+
+    /**
+     * Detaches the card from its pet and cancels any image load still in flight.
+     */
+    public void unbind() {
+        if (pendingImage != null) {
+            pendingImage.cancel(false);
+            pendingImage = null;
+        }
+        pet = null;
+        showPlaceholder();
+    }
 
-        return cardPanel;
+    private void showPlaceholder() {
+        // Placeholder icon until the image is ready (or if it is not found)
+        imageLabel.setIcon(null);
+        imageLabel.setText("🐾");
     }
 }
@@ -5,10 +5,10 @@ import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.RoundRectangle2D;
-import java.io.File;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
 
 public class PawTrackLogin extends JFrame {
 
@@ -94,12 +94,11 @@ public class PawTrackLogin extends JFrame {
         loginButton.addActionListener(_ -> {
 
             String username = usernameField.getText().trim();
-            String password = new String(passwordField.getPassword());
+            char[] password = passwordField.getPassword();
             
-            if (!username.isEmpty() && !password.isEmpty() && 
-                !username.equals("Enter your username") && !password.equals("Enter your password")) {
-                this.dispose();
-                SwingUtilities.invokeLater(() -> new Dashboard().setVisible(true));
+            if (!username.isEmpty() && password.length > 0 && 
+                !username.equals("Enter your username") && !Arrays.equals(password, "Enter your password".toCharArray())) {
+                login(username, password, loginButton);
             } else {
                 JOptionPane.showMessageDialog(this, "Please enter valid username and password", 
                     "Login Error", JOptionPane.ERROR_MESSAGE);
@@ -140,6 +139,45 @@ public class PawTrackLogin extends JFrame {
         return leftPanel;
     }
 
+    /**
+     * Checks the credentials off the Event Dispatch Thread and opens the Dashboard on success.
+     */
+    private void login(String username, char[] password, JButton loginButton) {
+        Authenticator authenticator;
+        try {
+            authenticator = Authenticator.getDefault();
+        } catch (IOException e) {
+            System.err.println("Error opening account store: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "Accounts are unavailable right now.", "Login Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        loginButton.setEnabled(false);
+        loginButton.setText("SIGNING IN...");
+        authenticator.login(username, LoginRateLimiter.LOCAL_WORKSTATION, password).whenComplete((session, error) ->
+            SwingUtilities.invokeLater(() -> {
+                loginButton.setEnabled(true);
+                loginButton.setText("LOGIN");
+                Throwable cause = (error == null) ? null : Authenticator.unwrap(error);
+                if (session != null) {
+                    this.dispose();
+                    new Dashboard(session).setVisible(true);
+                } else if (cause instanceof LoginRateLimiter.ThrottledException) {
+                    long seconds = Math.max(1, (((LoginRateLimiter.ThrottledException) cause).getRetryAfterMillis() + 999) / 1000);
+                    JOptionPane.showMessageDialog(this, "Too many login attempts. Please wait " + seconds + " seconds and try again.",
+                        "Login Locked", JOptionPane.WARNING_MESSAGE);
+                } else if (cause instanceof RejectedExecutionException) {
+                    JOptionPane.showMessageDialog(this, "Too many sign-ins at once. Please try again in a moment.",
+                        "Login Busy", JOptionPane.WARNING_MESSAGE);
+                } else if (cause != null) {
+                    System.err.println("Error checking credentials: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(this, "Could not sign in. Please try again.", "Login Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Incorrect username or password", 
+                        "Login Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }));
+    }
+
     private JPanel createInfoPanel() {
         JPanel rightPanel = new JPanel(new GridBagLayout());
         rightPanel.setBackground(COLOR_BACKGROUND);
@@ -330,13 +368,14 @@ class RoundedPasswordFieldCustom extends JPasswordField {
 }
 
 class RoundedImageComponent extends JLabel {
-    private Image originalImage;
+    private BufferedImage originalImage;
+    private BufferedImage rendered; // originalImage fitted and rounded to the current size
     private final int cornerRadius;
 
     public RoundedImageComponent(String imagePath, int cornerRadius) {
         this.cornerRadius = cornerRadius;
         try {
-            this.originalImage = ImageIO.read(new File(imagePath));
+            this.originalImage = ImageCache.getInstance().getImage(imagePath);
         } catch (IOException e) {
             setText("Image not found");
             setHorizontalAlignment(SwingConstants.CENTER);
@@ -349,41 +388,18 @@ class RoundedImageComponent extends JLabel {
     @Override
     protected void paintComponent(Graphics g) {
         if (originalImage != null) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            // Maintain aspect ratio
             int componentWidth = getWidth();
             int componentHeight = getHeight();
-            int imageWidth = originalImage.getWidth(this);
-            int imageHeight = originalImage.getHeight(this);
-
-            double imageAspect = (double) imageWidth / (double) imageHeight;
-            double componentAspect = (double) componentWidth / (double) componentHeight;
-
-            int newWidth, newHeight, x, y;
-
-            if (imageAspect > componentAspect) {
-                // Image is wider than the component, scale by width
-                newWidth = componentWidth;
-                newHeight = (int) (newWidth / imageAspect);
-                x = 0;
-                y = (componentHeight - newHeight) / 2;
-            } else {
-                // Image is taller or has same aspect ratio, scale by height
-                newHeight = componentHeight;
-                newWidth = (int) (newHeight * imageAspect);
-                y = 0;
-                x = (componentWidth - newWidth) / 2;
+            if (componentWidth <= 0 || componentHeight <= 0) {
+                return;
             }
 
-            // Clip the area to a rounded rectangle before drawing
-            RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), cornerRadius, cornerRadius);
-            g2d.setClip(roundRect);
-
-            // Draw the image scaled and centered
-            g2d.drawImage(originalImage, x, y, newWidth, newHeight, this);
-            g2d.dispose();
+            // Scale and round once per size; later repaints (hover, focus) only blit
+            if (rendered == null || rendered.getWidth() != componentWidth || rendered.getHeight() != componentHeight) {
+                rendered = ImageCache.renderRounded(originalImage, componentWidth, componentHeight, cornerRadius,
+                    getGraphicsConfiguration());
+            }
+            g.drawImage(rendered, 0, 0, null);
         } else {
             super.paintComponent(g); // If image is null, just behave like a normal JLabel
         }
@@ -0,0 +1,55 @@
+/**
+ * A single pet listing shown in the Paw panel.
+ */
+public class Pet {
+
+    private final long id;
+    private final String name;
+    private final String status;
+    private final String imagePath;
+
+    public Pet(String name, String status, String imagePath) {
+        this(0, name, status, imagePath);
+    }
+
+    /**
+     * @param id The repository key, or 0 for a pet that has not been saved yet.
+     */
+    public Pet(long id, String name, String status, String imagePath) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.imagePath = imagePath;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The adoption status (e.g., "Available", "Adopted", "In Foster").
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * Returns a copy of this pet with the given repository key.
+     */
+    public Pet withId(long newId) {
+        return new Pet(newId, name, status, imagePath);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + status + ")";
+    }
+}
@@ -0,0 +1,45 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage for the pet catalog.
+ * Queries are paged so callers can pull only the rows they are about to show.
+ */
+public interface PetRepository {
+
+    /**
+     * Inserts a new pet (id 0) or replaces the stored pet with the same id.
+     * @return The saved pet, carrying its assigned id.
+     */
+    Pet save(Pet pet) throws IOException;
+
+    /**
+     * Removes the pet with the given id.
+     * @return true if a pet was removed.
+     */
+    boolean delete(long id) throws IOException;
+
+    /**
+     * @return The pet with the given id, or null if there is none.
+     */
+    Pet findById(long id) throws IOException;
+
+    /**
+     * Returns up to limit pets in id order, skipping the first offset pets.
+     */
+    List<Pet> findPage(int offset, int limit) throws IOException;
+
+    /**
+     * Returns up to limit pets with the given status (case-insensitive) in id order.
+     */
+    List<Pet> findByStatus(String status, int offset, int limit) throws IOException;
+
+    /**
+     * Returns up to limit pets whose name starts with the prefix (case-insensitive), ordered by name.
+     */
+    List<Pet> findByNamePrefix(String prefix, int offset, int limit) throws IOException;
+
+    int count();
+
+    int countByStatus(String status);
+}
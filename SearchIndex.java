@@ -0,0 +1,517 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-process inverted index with prefix and fuzzy term matching and BM25 ranking.
+ *
+ * Each query token is expanded to the indexed terms it matches exactly, as a prefix,
+ * or within a small edit distance (found through a deletion-neighbourhood index, so
+ * misspellings are resolved without scanning the term dictionary). Documents are
+ * scored with BM25, weighted by how each term matched and by how many of the query
+ * tokens they contain.
+ */
+public class SearchIndex {
+
+    /**
+     * A searchable record. The key must be unique across all documents in the index.
+     */
+    public static class Document {
+        private final String key;
+        private final String type;
+        private final String title;
+        private final String subtitle;
+        private final String text;
+
+        /**
+         * @param key      Unique key, e.g. "pet:12".
+         * @param type     Display category, e.g. "Pet".
+         * @param title    Main line shown in results.
+         * @param subtitle Secondary line shown in results.
+         * @param text     Additional text to index besides title and subtitle.
+         */
+        public Document(String key, String type, String title, String subtitle, String text) {
+            this.key = key;
+            this.type = type;
+            this.title = title;
+            this.subtitle = subtitle;
+            this.text = text;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getSubtitle() {
+            return subtitle;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * A ranked search hit.
+     */
+    public static class Result {
+        private final Document document;
+        private final double score;
+
+        Result(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        public Document getDocument() {
+            return document;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * The outcome of a query, kept so the next, longer query can reuse its candidates.
+     */
+    public static class Hits {
+        private final String query;
+        private final int tokenCount;
+        private final List<Result> results;
+        private final int[] candidates; // Null if a prefix expansion was cut short
+        private final long version;
+
+        Hits(String query, int tokenCount, List<Result> results, int[] candidates, long version) {
+            this.query = query;
+            this.tokenCount = tokenCount;
+            this.results = results;
+            this.candidates = candidates;
+            this.version = version;
+        }
+
+        public List<Result> getResults() {
+            return results;
+        }
+    }
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Weight of a term depending on how it matched the query token
+    private static final double EXACT_WEIGHT = 1.0;
+    private static final double PREFIX_WEIGHT = 0.6;
+    private static final double FUZZY_WEIGHT = 0.45;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Documents are addressed internally by slot number; freed slots are reused
+    private final List<Document> documents = new ArrayList<>();
+    private final List<String[]> documentTerms = new ArrayList<>();
+    private int[] documentLengths = new int[16];
+    private final Map<String, Integer> slotsByKey = new HashMap<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private long totalLength = 0;
+    private long version = 0; // Bumped on every change so stale candidate sets are not reused
+
+    // term -> (slot -> term frequency)
+    private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    // deletion variant -> terms producing it (for fuzzy lookup)
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+
+    /**
+     * Adds a document, replacing any document with the same key.
+     */
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.getKey());
+
+            int slot;
+            if (freeSlots.isEmpty()) {
+                slot = documents.size();
+                documents.add(null);
+                documentTerms.add(null);
+            } else {
+                slot = freeSlots.remove(freeSlots.size() - 1);
+            }
+            if (slot >= documentLengths.length) {
+                int[] grown = new int[slot * 2];
+                System.arraycopy(documentLengths, 0, grown, 0, documentLengths.length);
+                documentLengths = grown;
+            }
+
+            List<String> tokens = tokenize(document.getTitle() + " " + document.getSubtitle() + " " + document.getText());
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                String term = entry.getKey();
+                Map<Integer, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    termPostings = new HashMap<>();
+                    postings.put(term, termPostings);
+                    addDeletions(term);
+                }
+                termPostings.put(slot, entry.getValue());
+            }
+
+            documents.set(slot, document);
+            documentTerms.set(slot, frequencies.keySet().toArray(new String[0]));
+            documentLengths[slot] = tokens.size();
+            totalLength += tokens.size();
+            slotsByKey.put(document.getKey(), slot);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the document with the given key, if present.
+     */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best matching documents for the query, highest score first.
+     */
+    public List<Result> search(String query, int limit) {
+        return search(query, limit, null).getResults();
+    }
+
+    /**
+     * Searches incrementally. When the query extends the last word of the previous query
+     * (the user typed more characters) and the index has not changed since, only the
+     * previous query's matching documents are scored, so each added character gets
+     * cheaper. A new word can add matches, so it starts over, as does a query after one
+     * whose prefix expansion was capped at {@value #MAX_PREFIX_EXPANSIONS} terms and so
+     * missed documents.
+     * A longer prefix can only narrow exact and prefix matches; a document that would
+     * newly match only through a fuzzy spelling of the longer token is not picked up
+     * until the query stops extending the previous one.
+     * @param previous The hits of the last query, or null.
+     * @throws CancellationException If the calling thread is interrupted mid-search.
+     */
+    public Hits search(String query, int limit, Hits previous) {
+        List<String> queryTokens = tokenize(query);
+        String normalized = String.join(" ", queryTokens);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return new Hits(normalized, queryTokens.size(), Collections.emptyList(), new int[0], -1);
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = slotsByKey.size();
+            if (documentCount == 0) {
+                return new Hits(normalized, queryTokens.size(), Collections.emptyList(), new int[0], version);
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+
+            // Restrict scoring to the previous candidates when the query only grew
+            int slots = documents.size();
+            boolean[] allowed = null;
+            int[] previousCandidates = null;
+            if (previous != null && previous.version == version && previous.candidates != null
+                    && previous.tokenCount == queryTokens.size() && !previous.query.isEmpty()
+                    && normalized.startsWith(previous.query)) {
+                previousCandidates = previous.candidates;
+                allowed = new boolean[slots];
+                for (int slot : previousCandidates) {
+                    allowed[slot] = true;
+                }
+            }
+
+            // Per-slot accumulators; tokenScores holds the best weight per document for
+            // the current token so a document matching a token several ways counts once
+            double[] scores = new double[slots];
+            int[] matchedTokens = new int[slots];
+            double[] tokenScores = new double[slots];
+            List<Integer> touched = new ArrayList<>();
+            Set<String> uniqueTokens = new HashSet<>(queryTokens);
+            boolean[] truncated = new boolean[1];
+            for (String token : uniqueTokens) {
+                List<Integer> tokenTouched = new ArrayList<>();
+                for (Map.Entry<String, Double> expansion : expand(token, truncated).entrySet()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Search cancelled: " + query);
+                    }
+                    Map<Integer, Integer> termPostings = postings.get(expansion.getKey());
+                    double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                    double weight = expansion.getValue() * idf * (K1 + 1);
+
+                    if (previousCandidates != null && previousCandidates.length < termPostings.size()) {
+                        // Fewer candidates than postings: probe the candidates instead
+                        for (int slot : previousCandidates) {
+                            Integer tf = termPostings.get(slot);
+                            if (tf != null) {
+                                accumulate(slot, tf, weight, averageLength, tokenScores, tokenTouched);
+                            }
+                        }
+                    } else {
+                        for (Map.Entry<Integer, Integer> posting : termPostings.entrySet()) {
+                            int slot = posting.getKey();
+                            if (allowed == null || allowed[slot]) {
+                                accumulate(slot, posting.getValue(), weight, averageLength, tokenScores, tokenTouched);
+                            }
+                        }
+                    }
+                }
+                for (int slot : tokenTouched) {
+                    if (matchedTokens[slot] == 0) {
+                        touched.add(slot);
+                    }
+                    scores[slot] += tokenScores[slot];
+                    matchedTokens[slot]++;
+                    tokenScores[slot] = 0;
+                }
+            }
+
+            // Keep the top results with a bounded min-heap
+            int tokenCount = uniqueTokens.size();
+            PriorityQueue<Result> top = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(a.getScore(), b.getScore()));
+            int[] candidates = new int[touched.size()];
+            for (int i = 0; i < candidates.length; i++) {
+                int slot = touched.get(i);
+                candidates[i] = slot;
+                double coordination = (double) matchedTokens[slot] / tokenCount;
+                double score = scores[slot] * coordination * coordination;
+                if (top.size() < limit || score > top.peek().getScore()) {
+                    top.add(new Result(documents.get(slot), score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+            List<Result> results = new ArrayList<>(top);
+            results.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+            return new Hits(normalized, queryTokens.size(), results, truncated[0] ? null : candidates, version);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(int slot, double tf, double weight, double averageLength,
+                            double[] tokenScores, List<Integer> tokenTouched) {
+        double norm = K1 * (1 - B + B * documentLengths[slot] / averageLength);
+        double score = weight * tf / (tf + norm);
+        if (tokenScores[slot] == 0) {
+            tokenTouched.add(slot);
+        }
+        if (score > tokenScores[slot]) {
+            tokenScores[slot] = score;
+        }
+    }
+
+    /**
+     * Lower-cases the text and splits it into letter/digit runs.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    // --- Term expansion ---
+
+    /**
+     * Maps a query token to the indexed terms it matches, with the weight of each match.
+     * @param truncated Set to true if the token has more completions than were taken.
+     */
+    private Map<String, Double> expand(String token, boolean[] truncated) {
+        Map<String, Double> terms = new HashMap<>();
+        if (postings.containsKey(token)) {
+            terms.put(token, EXACT_WEIGHT);
+        }
+
+        NavigableMap<String, Map<Integer, Integer>> prefixed = postings.subMap(token, false, token + Character.MAX_VALUE, false);
+        int expansions = 0;
+        for (String term : prefixed.keySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                truncated[0] = true;
+                break;
+            }
+            // Shorter completions are closer to what was typed
+            double weight = PREFIX_WEIGHT * (0.5 + 0.5 * token.length() / term.length());
+            terms.merge(term, weight, Math::max);
+        }
+
+        int maxDistance = maxEditDistance(token);
+        if (maxDistance > 0) {
+            Set<String> candidates = new HashSet<>();
+            for (String variant : deletionVariants(token, maxDistance)) {
+                Set<String> matches = deletions.get(variant);
+                if (matches != null) {
+                    candidates.addAll(matches);
+                }
+            }
+            for (String candidate : candidates) {
+                int distance = editDistance(token, candidate, maxDistance);
+                if (distance > 0 && distance <= maxDistance) {
+                    terms.merge(candidate, FUZZY_WEIGHT / distance, Math::max);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static int maxEditDistance(String token) {
+        // Short words and ids/numbers (licenses, phone numbers) only match exactly or by prefix
+        if (token.length() < 4 || token.chars().anyMatch(Character::isDigit)) {
+            return 0;
+        }
+        return (token.length() < 8) ? 1 : 2;
+    }
+
+    private void addDeletions(String term) {
+        for (String variant : deletionVariants(term, maxEditDistance(term))) {
+            deletions.computeIfAbsent(variant, k -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeDeletions(String term) {
+        for (String variant : deletionVariants(term, maxEditDistance(term))) {
+            Set<String> terms = deletions.get(variant);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletions.remove(variant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the term itself plus every string obtained by deleting up to maxDeletes characters.
+     * Two words within that edit distance always share at least one variant.
+     */
+    private static Set<String> deletionVariants(String term, int maxDeletes) {
+        Set<String> variants = new HashSet<>();
+        variants.add(term);
+        List<String> frontier = Collections.singletonList(term);
+        for (int d = 0; d < maxDeletes; d++) {
+            List<String> next = new ArrayList<>();
+            for (String word : frontier) {
+                for (int i = 0; i < word.length(); i++) {
+                    String variant = word.substring(0, i) + word.substring(i + 1);
+                    if (variants.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up early once it exceeds max.
+     */
+    private static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1); // Transposition
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous2;
+            previous2 = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // --- Removal ---
+
+    private void removeLocked(String key) {
+        Integer slot = slotsByKey.remove(key);
+        if (slot == null) {
+            return;
+        }
+        for (String term : documentTerms.get(slot)) {
+            Map<Integer, Integer> termPostings = postings.get(term);
+            termPostings.remove(slot);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                removeDeletions(term);
+            }
+        }
+        totalLength -= documentLengths[slot];
+        documentLengths[slot] = 0;
+        documents.set(slot, null);
+        documentTerms.set(slot, null);
+        freeSlots.add(slot);
+        version++;
+    }
+}
@@ -0,0 +1,88 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Shows ranked search results in the Dashboard's main content area.
+ */
+public class SearchResultsPanel extends JPanel {
+
+    private final Color MAIN_BACKGROUND = new Color(245, 245, 245);
+    private final Color TYPE_COLOR = new Color(23, 162, 184); // Teal
+    private final Color SELECTED_BACKGROUND = new Color(232, 244, 253); // Light blue
+
+    private final JLabel summaryLabel;
+    private final DefaultListModel<SearchIndex.Result> resultsModel = new DefaultListModel<>();
+
+    public SearchResultsPanel() {
+        setLayout(new BorderLayout(0, 10));
+        setBackground(MAIN_BACKGROUND);
+        setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        summaryLabel = new JLabel("Search paws, licenses, or contacts...");
+        summaryLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
+        add(summaryLabel, BorderLayout.NORTH);
+
+        JList<SearchIndex.Result> resultsList = new JList<>(resultsModel);
+        resultsList.setCellRenderer(new ResultRenderer());
+        resultsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultsList.setFixedCellHeight(56); // Skip measuring every row
+
+        JScrollPane scrollPane = new JScrollPane(resultsList);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16); // Smoother scrolling
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Replaces the displayed results.
+     * @param elapsedMillis How long the query took, shown in the summary line.
+     */
+    public void showResults(String query, List<SearchIndex.Result> results, double elapsedMillis) {
+        resultsModel.clear();
+        resultsModel.addAll(results);
+        summaryLabel.setText(String.format("%d result%s for \"%s\" (%.1f ms)",
+            results.size(), results.size() == 1 ? "" : "s", query, elapsedMillis));
+    }
+
+    /**
+     * Renders a result as a type badge, a bold title and a grey subtitle.
+     */
+    private class ResultRenderer extends JPanel implements ListCellRenderer<SearchIndex.Result> {
+        private final JLabel typeLabel = new JLabel();
+        private final JLabel titleLabel = new JLabel();
+        private final JLabel subtitleLabel = new JLabel();
+
+        ResultRenderer() {
+            super(new BorderLayout(12, 0));
+            setBorder(new EmptyBorder(8, 12, 8, 12));
+
+            typeLabel.setFont(new Font("SansSerif", Font.BOLD, 12));
+            typeLabel.setForeground(TYPE_COLOR);
+            typeLabel.setPreferredSize(new Dimension(90, 20));
+            titleLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+            subtitleLabel.setFont(new Font("SansSerif", Font.PLAIN, 13));
+            subtitleLabel.setForeground(Color.GRAY);
+
+            JPanel textPanel = new JPanel(new GridLayout(2, 1));
+            textPanel.setOpaque(false);
+            textPanel.add(titleLabel);
+            textPanel.add(subtitleLabel);
+
+            add(typeLabel, BorderLayout.WEST);
+            add(textPanel, BorderLayout.CENTER);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends SearchIndex.Result> list,
+                SearchIndex.Result value, int index, boolean isSelected, boolean cellHasFocus) {
+            SearchIndex.Document document = value.getDocument();
+            typeLabel.setText(document.getType().toUpperCase());
+            titleLabel.setText(document.getTitle());
+            subtitleLabel.setText(document.getSubtitle());
+            setBackground(isSelected ? SELECTED_BACKGROUND : Color.WHITE);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * In-memory login sessions, so that signing in again at the same workstation (after a
+ * logout or screen lock) does not pay for a full password hash while the session lasts.
+ *
+ * A session remembers an HMAC of the password under a random per-session key. Signing in
+ * again checks the password against that tag in constant time, which takes microseconds
+ * instead of the KDF's tens of milliseconds. Nothing here is written to disk. Sessions
+ * expire after {@link #IDLE_TTL_MILLIS} without use, and after {@link #MAX_TTL_MILLIS} in any case.
+ */
+public final class SessionCache {
+
+    static final long IDLE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    static final long MAX_TTL_MILLIS = TimeUnit.HOURS.toMillis(10); // About one shift
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * A signed-in user at one workstation.
+     */
+    public static final class Session {
+        private final String token;
+        private final Account account;
+        private final String workstation;
+        private final long createdAt;
+        private final byte[] tagKey;
+        private final byte[] passwordTag;
+        private volatile long lastUsed;
+
+        private Session(String token, Account account, String workstation, long now, byte[] tagKey, byte[] passwordTag) {
+            this.token = token;
+            this.account = account;
+            this.workstation = workstation;
+            this.createdAt = now;
+            this.tagKey = tagKey;
+            this.passwordTag = passwordTag;
+            this.lastUsed = now;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public Account getAccount() {
+            return account;
+        }
+
+        public String getWorkstation() {
+            return workstation;
+        }
+
+        boolean isExpired(long now) {
+            return now - lastUsed > IDLE_TTL_MILLIS || now - createdAt > MAX_TTL_MILLIS;
+        }
+    }
+
+    private final Map<String, Session> byToken = new ConcurrentHashMap<>();
+    private final Map<String, Session> byUser = new ConcurrentHashMap<>(); // "username@workstation"
+    private final SecureRandom random = new SecureRandom();
+
+    public SessionCache() {
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictExpired, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a session after a full password check, replacing any earlier session of the
+     * same user at the same workstation.
+     */
+    public Session open(Account account, String workstation, char[] password) {
+        byte[] tagKey = new byte[32];
+        random.nextBytes(tagKey);
+        byte[] tokenBytes = new byte[32];
+        random.nextBytes(tokenBytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        Session session = new Session(token, account, workstation, System.currentTimeMillis(), tagKey, tag(tagKey, password));
+        Session previous = byUser.put(userKey(account.getUsername(), workstation), session);
+        if (previous != null) {
+            byToken.remove(previous.token);
+        }
+        byToken.put(token, session);
+        return session;
+    }
+
+    /**
+     * Signs in again using a live session instead of the password hash. A password that
+     * does not match ends the session, so a session never answers more than one wrong guess.
+     * @return The refreshed session, or null if there is none or the password does not match it.
+     */
+    public Session resume(String username, String workstation, char[] password) {
+        Session session = byUser.get(userKey(username, workstation));
+        long now = System.currentTimeMillis();
+        if (session == null || session.isExpired(now)) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(tag(session.tagKey, password), session.passwordTag)) {
+            invalidate(session); // Maybe a new password; let the full check decide
+            return null;
+        }
+        session.lastUsed = now;
+        return session;
+    }
+
+    /**
+     * @return The live session with this token, or null.
+     */
+    public Session get(String token) {
+        Session session = byToken.get(token);
+        if (session == null || session.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return session;
+    }
+
+    public void invalidate(Session session) {
+        byToken.remove(session.token);
+        byUser.remove(userKey(session.account.getUsername(), session.workstation), session);
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        for (Session session : byToken.values()) {
+            if (session.isExpired(now)) {
+                invalidate(session);
+            }
+        }
+    }
+
+    private static String userKey(String username, String workstation) {
+        return username.toLowerCase(Locale.ROOT) + "@" + workstation;
+    }
+
+    private static byte[] tag(byte[] key, char[] password) {
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            mac.update(encoded);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e); // Required on every JVM
+        } finally {
+            if (encoded.hasArray()) {
+                Arrays.fill(encoded.array(), (byte) 0);
+            }
+        }
+    }
+}
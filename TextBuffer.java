@@ -0,0 +1,277 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Editable text for one form field: a gap buffer with a caret, a selection and undo/redo.
+ *
+ * The text lives in a char array with a movable gap at the caret, so typing or deleting
+ * next to the caret only touches the gap instead of copying the whole text. Moving the
+ * caret shifts the characters between the old and new positions across the gap.
+ * Consecutive typing or deleting is merged into one undo step. Callers read the text
+ * through the {@link CharSequence} view, or a {@link #substring} of it, so a keystroke
+ * never needs the whole text as a String; {@link #getVersion} tells them whether it changed.
+ */
+public final class TextBuffer implements CharSequence {
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int MAX_UNDO = 200;
+    private static final int MAX_MERGED_RUN = 64; // Keeps merging O(1) per keystroke and undo steps word-sized
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int gapStart = 0;
+    private int gapEnd = INITIAL_CAPACITY;
+
+    private int caret = 0;
+    private int anchor = 0; // Other end of the selection; equal to caret when nothing is selected
+
+    private String text = ""; // Cached contents, rebuilt lazily after an edit
+    private long version = 0;  // Bumped on every edit
+
+    private final Deque<Edit> undoStack = new ArrayDeque<>();
+    private final Deque<Edit> redoStack = new ArrayDeque<>();
+
+    /**
+     * One reversible change: at position, removed was replaced by inserted.
+     */
+    private static final class Edit {
+        int position;
+        String removed;
+        String inserted;
+        final int caretBefore;
+        final int anchorBefore;
+
+        Edit(int position, String removed, String inserted, int caretBefore, int anchorBefore) {
+            this.position = position;
+            this.removed = removed;
+            this.inserted = inserted;
+            this.caretBefore = caretBefore;
+            this.anchorBefore = anchorBefore;
+        }
+    }
+
+    @Override
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (index < gapStart) ? chars[index] : chars[index + (gapEnd - gapStart)];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    /**
+     * @return A number that changes whenever the text does; moving the caret keeps it.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        if (text == null) {
+            StringBuilder builder = new StringBuilder(length());
+            builder.append(chars, 0, gapStart);
+            builder.append(chars, gapEnd, chars.length - gapEnd);
+            text = builder.toString();
+        }
+        return text;
+    }
+
+    // --- Caret and selection ---
+
+    public int getCaret() {
+        return caret;
+    }
+
+    public int getSelectionStart() {
+        return Math.min(caret, anchor);
+    }
+
+    public int getSelectionEnd() {
+        return Math.max(caret, anchor);
+    }
+
+    public boolean hasSelection() {
+        return caret != anchor;
+    }
+
+    /**
+     * Moves the caret, clamped to the text.
+     * @param extendSelection True to keep the anchor where it is (shift+arrow, mouse drag).
+     */
+    public void moveCaret(int position, boolean extendSelection) {
+        caret = Math.max(0, Math.min(length(), position));
+        if (!extendSelection) {
+            anchor = caret;
+        }
+    }
+
+    public void selectAll() {
+        anchor = 0;
+        caret = length();
+    }
+
+    public String getSelectedText() {
+        return substring(getSelectionStart(), getSelectionEnd());
+    }
+
+    /**
+     * Copies just the requested range, without materializing the whole text.
+     */
+    public String substring(int start, int end) {
+        if (text != null) {
+            return text.substring(start, end);
+        }
+        char[] range = new char[end - start];
+        for (int i = start; i < end; i++) {
+            range[i - start] = charAt(i);
+        }
+        return new String(range);
+    }
+
+    // --- Editing ---
+
+    /**
+     * Types text at the caret, replacing the selection if there is one.
+     */
+    public void replaceSelection(String inserted) {
+        int start = getSelectionStart();
+        replace(start, getSelectionEnd(), inserted, !hasSelection() && inserted.length() == 1);
+    }
+
+    /**
+     * Backspace: deletes the selection, or the character before the caret.
+     */
+    public void deleteBackward() {
+        if (hasSelection()) {
+            replace(getSelectionStart(), getSelectionEnd(), "", false);
+        } else if (caret > 0) {
+            replace(caret - 1, caret, "", true);
+        }
+    }
+
+    /**
+     * Delete: deletes the selection, or the character after the caret.
+     */
+    public void deleteForward() {
+        if (hasSelection()) {
+            replace(getSelectionStart(), getSelectionEnd(), "", false);
+        } else if (caret < length()) {
+            replace(caret, caret + 1, "", true);
+        }
+    }
+
+    public boolean undo() {
+        Edit edit = undoStack.pollLast();
+        if (edit == null) {
+            return false;
+        }
+        apply(edit.position, edit.position + edit.inserted.length(), edit.removed);
+        caret = edit.caretBefore;
+        anchor = edit.anchorBefore;
+        redoStack.addLast(edit);
+        return true;
+    }
+
+    public boolean redo() {
+        Edit edit = redoStack.pollLast();
+        if (edit == null) {
+            return false;
+        }
+        apply(edit.position, edit.position + edit.removed.length(), edit.inserted);
+        caret = anchor = edit.position + edit.inserted.length();
+        undoStack.addLast(edit);
+        return true;
+    }
+
+    /**
+     * Replaces [start, end) with inserted, records it for undo and leaves the caret after it.
+     * @param mergeable True for single-character typing/deleting that may join the previous undo step.
+     */
+    private void replace(int start, int end, String inserted, boolean mergeable) {
+        String removed = substring(start, end);
+        if (removed.isEmpty() && inserted.isEmpty()) {
+            return;
+        }
+        Edit last = undoStack.peekLast();
+        if (mergeable && last != null && canMerge(last, start, end, inserted)) {
+            if (inserted.isEmpty() && start < last.position) {
+                last.removed = removed + last.removed; // Backspace run
+                last.position = start;
+            } else if (inserted.isEmpty()) {
+                last.removed = last.removed + removed; // Delete run
+            } else {
+                last.inserted = last.inserted + inserted; // Typing run
+            }
+        } else {
+            undoStack.addLast(new Edit(start, removed, inserted, caret, anchor));
+            if (undoStack.size() > MAX_UNDO) {
+                undoStack.pollFirst();
+            }
+        }
+        redoStack.clear();
+
+        apply(start, end, inserted);
+        caret = anchor = start + inserted.length();
+    }
+
+    private static boolean canMerge(Edit last, int start, int end, String inserted) {
+        if (last.inserted.length() + last.removed.length() >= MAX_MERGED_RUN) {
+            return false;
+        }
+        if (!inserted.isEmpty()) {
+            // Typing straight after the previous typed run
+            return last.removed.isEmpty() && start == end && start == last.position + last.inserted.length();
+        }
+        if (!last.inserted.isEmpty()) {
+            return false;
+        }
+        // Backspace just before, or delete at the same spot as, the previous deletion
+        return end == last.position || start == last.position;
+    }
+
+    /**
+     * Raw edit: moves the gap to start, drops the removed characters into it and
+     * copies the inserted ones in front of it.
+     */
+    private void apply(int start, int end, String inserted) {
+        moveGap(start);
+        gapEnd += end - start;
+        ensureGap(inserted.length());
+        inserted.getChars(0, inserted.length(), chars, gapStart);
+        gapStart += inserted.length();
+        text = null;
+        version++;
+    }
+
+    private void moveGap(int position) {
+        if (position < gapStart) {
+            int count = gapStart - position;
+            System.arraycopy(chars, position, chars, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (position > gapStart) {
+            int count = position - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void ensureGap(int needed) {
+        if (gapEnd - gapStart >= needed) {
+            return;
+        }
+        int tail = chars.length - gapEnd;
+        char[] grown = new char[Math.max(chars.length * 2, length() + needed + INITIAL_CAPACITY)];
+        System.arraycopy(chars, 0, grown, 0, gapStart);
+        System.arraycopy(chars, gapEnd, grown, grown.length - tail, tail);
+        gapEnd = grown.length - tail;
+        chars = grown;
+    }
+}
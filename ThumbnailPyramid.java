@@ -0,0 +1,105 @@
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import javax.imageio.ImageIO;
+
+/**
+ * Precomputed downscaled copies of stored photos.
+ *
+ * Every image in the {@link BlobStore} gets renditions whose long edge is one of
+ * {@link #SIZES}, stored beside it as derived files. {@link ImageCache#getScaled} draws
+ * from the smallest rendition that covers the requested size, so a grid of pet cards
+ * decodes a few kilobytes per card instead of the full photo.
+ */
+public final class ThumbnailPyramid {
+
+    /** Long-edge sizes of the renditions, ascending. */
+    static final int[] SIZES = {64, 128, 256, 512};
+
+    // Renditions are independent, so build them side by side; daemon threads never block exit
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+        Math.max(2, Math.min(SIZES.length, Runtime.getRuntime().availableProcessors())),
+        pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("thumbnail-pyramid-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        },
+        null, false);
+
+    // Blobs with a background build queued or running
+    private static final Set<String> building = ConcurrentHashMap.newKeySet();
+
+    private ThumbnailPyramid() {
+    }
+
+    static String renditionName(int size) {
+        return "r" + size;
+    }
+
+    /**
+     * @return True if the path is an original stored image that renditions are made for.
+     */
+    static boolean hasRenditions(String path) {
+        return BlobStore.isRef(path) && BlobStore.hashOf(path).indexOf('/') < 0;
+    }
+
+    /**
+     * Builds any missing renditions of a stored image and waits for them.
+     * @param source The decoded blob, so callers that already have it need not decode it again.
+     */
+    public static void build(String hash, BufferedImage source) throws IOException {
+        BlobStore store = BlobStore.getDefault();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(SIZES.length);
+        for (int size : SIZES) {
+            String name = renditionName(size);
+            if (!store.hasDerived(hash, name)) {
+                tasks.add(POOL.submit(() -> {
+                    store.putDerived(hash, name, ImageIngest.encode(ImageIngest.fitWithin(source, size, size)));
+                    return null;
+                }));
+            }
+        }
+        IOException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                failure = (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Builds any missing renditions in the background, e.g. for photos stored before
+     * renditions existed. Repeated calls for the same blob share one build.
+     */
+    public static void buildAsync(String hash) {
+        if (!building.add(hash)) {
+            return;
+        }
+        POOL.execute(() -> {
+            try (InputStream in = BlobStore.getDefault().openStream(hash)) {
+                BufferedImage source = ImageIO.read(in);
+                if (source != null) {
+                    build(hash, source);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not build thumbnails for " + hash + ": " + e.getMessage());
+            } finally {
+                building.remove(hash);
+            }
+        });
+    }
+}
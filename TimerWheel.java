@@ -0,0 +1,184 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel: schedules any number of deadlines in O(1) and finds the due
+ * ones without ever scanning the ones that are not.
+ *
+ * Time is counted in ticks. Level 0 has one bucket per tick for the next 64 ticks, level 1
+ * one bucket per 64 ticks for the next 64 of those, and so on, like the digits of the
+ * deadline in base 64. A timer is filed by the highest digit in which its deadline differs
+ * from the current tick. When a level's digit turns over, the one bucket that is now
+ * current is emptied into the finer levels below, so each timer moves at most once per
+ * level before it fires. Deadlines beyond the top level wait in an overflow list.
+ * Not thread-safe; callers lock around it.
+ */
+public class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 6; // 64^6 ticks, about 130,000 years of one-minute ticks
+
+    /**
+     * A scheduled deadline; keep it to cancel the timer.
+     */
+    public static final class Timeout<T> {
+        private final long deadline; // In ticks
+        private final T item;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public boolean isPending() {
+            return next != null;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout<T>[][] buckets; // Circular lists behind sentinel heads
+    private final Timeout<T> overflow = sentinel();
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * @param tick      How finely deadlines are told apart; timers fire on the first tick
+     *                  at or after their deadline.
+     * @param nowMillis The current time, in epoch millis.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(Duration tick, long nowMillis) {
+        this.tickMillis = tick.toMillis();
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms: " + tick);
+        }
+        this.currentTick = nowMillis / tickMillis;
+        this.buckets = new Timeout[LEVELS][WHEEL_SIZE];
+        for (Timeout<T>[] level : buckets) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = sentinel();
+            }
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an item. A deadline already past fires on the next tick.
+     */
+    public Timeout<T> schedule(long deadlineMillis, T item) {
+        // Round up, so nothing fires before its deadline
+        long deadline = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(deadline, item);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @return False if the timer had already fired or been cancelled.
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to nowMillis.
+     * @return The items whose deadlines have passed, earliest tick first.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>();
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target; // Nothing to cascade or fire on the way
+                break;
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][digit(currentTick, level)]);
+                }
+            }
+            if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                cascade(overflow);
+            }
+            Timeout<T> head = buckets[0][digit(currentTick, 0)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                size--;
+                due.add(timeout.item);
+            }
+        }
+        return due;
+    }
+
+    // --- Buckets ---
+
+    private void place(Timeout<T> timeout) {
+        long deadline = timeout.deadline;
+        for (int level = 0; level < LEVELS; level++) {
+            // Same higher digits: the deadline comes up within this level's current turn
+            if ((deadline >>> (BITS * (level + 1))) == (currentTick >>> (BITS * (level + 1)))) {
+                link(buckets[level][digit(deadline, level)], timeout);
+                return;
+            }
+        }
+        link(overflow, timeout);
+    }
+
+    // Empties a bucket whose turn has come back into the levels below
+    private void cascade(Timeout<T> head) {
+        while (head.next != head) {
+            Timeout<T> timeout = head.next;
+            unlink(timeout);
+            place(timeout);
+        }
+    }
+
+    private static int digit(long tick, int level) {
+        return (int) (tick >>> (BITS * level)) & MASK;
+    }
+
+    private static <T> Timeout<T> sentinel() {
+        Timeout<T> head = new Timeout<>(0, null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    private static <T> void link(Timeout<T> head, Timeout<T> timeout) {
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+}
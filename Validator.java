@@ -0,0 +1,475 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Declarative, incremental validation for a form.
+ *
+ * A form declares its fields once with {@link #addField}, each with a list of rules. Rules
+ * are built once: regular expressions are compiled when the rule is created and simple
+ * character checks are plain loops. As the user edits, {@link #update} re-checks only the
+ * field that changed (and fields that depend on it), and skips the check entirely when the
+ * value is unchanged, so {@link #validateAll} on submit mostly returns cached results.
+ *
+ * Errors are only reported for fields the user has left at least once ({@link #touch}), or
+ * after {@link #validateAll}, so nobody is told a field is invalid while still typing it.
+ *
+ * Rules that need a lookup, such as "username is free", are added with
+ * {@link #addBackgroundRule}. They run off the Event Dispatch Thread once the field's other
+ * rules pass, and their result is dropped if the field changed in the meantime.
+ */
+public class Validator {
+
+    /**
+     * One check on a field's value.
+     */
+    public interface Rule {
+        /**
+         * @param value The field's current value.
+         * @param form  The validator, for rules that compare against another field.
+         * @return An error message, or null if the value passes.
+         */
+        String check(String value, Validator form);
+    }
+
+    /**
+     * Receives a field's error (null when it is valid) whenever it should be shown or cleared.
+     */
+    public interface Listener {
+        void fieldValidated(String field, String error);
+    }
+
+    // Shared by all forms: background rules are quick lookups, one thread keeps them ordered
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "validation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class FieldState {
+        final List<Rule> rules;
+        final List<Rule> backgroundRules = new ArrayList<>(1);
+        final List<String> dependents = new ArrayList<>(2);
+        Supplier<String> source;
+        String value;        // Value the error was computed for
+        String error;
+        boolean checked = false;
+        boolean touched = false;
+
+        FieldState(List<Rule> rules) {
+            this.rules = rules;
+        }
+    }
+
+    private final Map<String, FieldState> fields = new LinkedHashMap<>();
+    private Listener listener = (field, error) -> { };
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Declares a field and its rules, checked in order; the first failing rule's message wins.
+     */
+    public Validator addField(String name, Rule... rules) {
+        fields.put(name, new FieldState(List.of(rules)));
+        return this;
+    }
+
+    /**
+     * Adds a rule that runs on a background thread after the field's other rules pass.
+     * It must not call back into this validator (its form argument is null).
+     */
+    public Validator addBackgroundRule(String field, Rule rule) {
+        state(field).backgroundRules.add(rule);
+        return this;
+    }
+
+    public boolean hasField(String name) {
+        return fields.containsKey(name);
+    }
+
+    /**
+     * Re-checks field whenever dependsOn changes, e.g. "repeat password" when "password" changes.
+     */
+    public Validator addDependency(String field, String dependsOn) {
+        state(dependsOn).dependents.add(field);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #validateAll} reads a field's current value from.
+     */
+    public void setSource(String field, Supplier<String> source) {
+        state(field).source = source;
+    }
+
+    /**
+     * Validates a Swing text field as it is edited and marks it touched when it loses focus.
+     * Text is trimmed, except in password fields. For masked fields that contain no digits
+     * yet, the value is "" so that "required" rules see them as empty.
+     */
+    public void bind(String field, JTextComponent component) {
+        Supplier<String> source;
+        if (component instanceof JPasswordField) {
+            JPasswordField password = (JPasswordField) component;
+            source = () -> new String(password.getPassword());
+        } else if (component instanceof JFormattedTextField) {
+            source = () -> {
+                String text = component.getText();
+                return containsDigit(text) ? text.trim() : "";
+            };
+        } else {
+            source = () -> component.getText().trim();
+        }
+        setSource(field, source);
+
+        component.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                update(field, source.get());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                update(field, source.get());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not affect the value
+            }
+        });
+        component.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                touch(field);
+            }
+        });
+    }
+
+    // --- Validation ---
+
+    /**
+     * Records a field's new value and re-checks it and its dependents.
+     * @return The field's error, or null if it is valid.
+     */
+    public String update(String field, String value) {
+        FieldState state = state(field);
+        if (state.checked && (value == state.value || value.equals(state.value))) {
+            return state.error; // Unchanged, e.g. only the caret moved
+        }
+        check(field, state, value);
+        for (String dependent : state.dependents) {
+            FieldState dependentState = state(dependent);
+            if (dependentState.checked) {
+                check(dependent, dependentState, dependentState.value);
+            }
+        }
+        return state.error;
+    }
+
+    /**
+     * Marks a field as visited, so its errors are shown from now on.
+     */
+    public void touch(String field) {
+        FieldState state = state(field);
+        if (state.touched) {
+            return;
+        }
+        state.touched = true;
+        if (!state.checked && state.source != null) {
+            check(field, state, state.source.get()); // Left without typing anything
+        } else {
+            listener.fieldValidated(field, state.error);
+        }
+    }
+
+    /**
+     * Brings every field up to date with its source, shows all errors, and reports whether
+     * the form is valid. Fields whose value has not changed since they were last checked
+     * are not checked again.
+     */
+    public boolean validateAll() {
+        boolean valid = true;
+        for (Map.Entry<String, FieldState> entry : fields.entrySet()) {
+            FieldState state = entry.getValue();
+            state.touched = true;
+            if (state.source != null) {
+                update(entry.getKey(), state.source.get());
+            }
+            listener.fieldValidated(entry.getKey(), state.error);
+            valid &= state.error == null;
+        }
+        return valid;
+    }
+
+    /**
+     * @return The field's last error if it should be shown (the field was touched), else null.
+     */
+    public String getVisibleError(String field) {
+        FieldState state = fields.get(field);
+        return (state != null && state.touched) ? state.error : null;
+    }
+
+    /**
+     * @return Every field's error that should be shown, in declaration order.
+     */
+    public Map<String, String> getVisibleErrors() {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (String field : fields.keySet()) {
+            String error = getVisibleError(field);
+            if (error != null) {
+                errors.put(field, error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @return The value a field was last checked with, for rules comparing fields.
+     */
+    public String valueOf(String field) {
+        FieldState state = fields.get(field);
+        if (state == null) {
+            return "";
+        }
+        if (!state.checked && state.source != null) {
+            return state.source.get();
+        }
+        return (state.value == null) ? "" : state.value;
+    }
+
+    /**
+     * Forgets all values and hides all errors, e.g. after the form was cleared.
+     */
+    public void reset() {
+        for (Map.Entry<String, FieldState> entry : fields.entrySet()) {
+            FieldState state = entry.getValue();
+            state.value = null;
+            state.error = null;
+            state.checked = false;
+            state.touched = false;
+            listener.fieldValidated(entry.getKey(), null);
+        }
+    }
+
+    private void check(String field, FieldState state, String value) {
+        String error = null;
+        for (Rule rule : state.rules) {
+            error = rule.check(value, this);
+            if (error != null) {
+                break;
+            }
+        }
+        state.value = value;
+        state.checked = true;
+        setError(field, state, error);
+        if (error == null && !state.backgroundRules.isEmpty()) {
+            checkInBackground(field, state, value);
+        }
+    }
+
+    private void setError(String field, FieldState state, String error) {
+        boolean changed = !Objects.equals(error, state.error);
+        state.error = error;
+        if (state.touched && changed) {
+            listener.fieldValidated(field, error);
+        }
+    }
+
+    private void checkInBackground(String field, FieldState state, String value) {
+        BACKGROUND.execute(() -> {
+            String error = null;
+            for (Rule rule : state.backgroundRules) {
+                error = rule.check(value, null);
+                if (error != null) {
+                    break;
+                }
+            }
+            String result = error;
+            SwingUtilities.invokeLater(() -> {
+                if (value.equals(state.value)) { // Still the value that was checked
+                    setError(field, state, result);
+                }
+            });
+        });
+    }
+
+    private FieldState state(String field) {
+        FieldState state = fields.get(field);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        return state;
+    }
+
+    private static boolean containsDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Rules ---
+
+    /**
+     * The same address check CreateAccount has always used, compiled once.
+     */
+    public static final Pattern EMAIL = Pattern.compile(
+        "^(([^<>()\\[\\]\\\\.,;:\\s@\"]+(\\.[^<>()\\[\\]\\\\.,;:\\s@\"]+)*)|(\".+\"))@((\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}])|(([a-zA-Z\\-0-9]+\\.)+[a-zA-Z]{2,}))$");
+
+    /** Digits with the usual separators, e.g. "0917 123 4567" or "+63 (2) 555-0100". */
+    public static final Pattern PHONE = Pattern.compile("\\+?[0-9][0-9 ()-]{5,18}[0-9]");
+
+    /** Fails when the value is empty or only whitespace. */
+    public static Rule required(String message) {
+        return (value, form) -> value.trim().isEmpty() ? message : null;
+    }
+
+    public static Rule minLength(int length, String message) {
+        return (value, form) -> value.length() < length ? message : null;
+    }
+
+    /** Passes empty values; pair it with {@link #required} when the field is mandatory. */
+    public static Rule matches(Pattern pattern, String message) {
+        return (value, form) -> value.isEmpty() || pattern.matcher(value).matches() ? null : message;
+    }
+
+    /** Letters, digits and underscores only. */
+    public static Rule identifier(String message) {
+        return (value, form) -> {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                    return message;
+                }
+            }
+            return null;
+        };
+    }
+
+    /** Digits only (empty passes). */
+    public static Rule digits(String message) {
+        return (value, form) -> {
+            for (int i = 0; i < value.length(); i++) {
+                if (!Character.isDigit(value.charAt(i))) {
+                    return message;
+                }
+            }
+            return null;
+        };
+    }
+
+    /** A plain decimal number such as "12" or "4.5", strictly between min and max (empty passes). */
+    public static Rule decimal(double min, double max, String message) {
+        return (value, form) -> {
+            if (value.isEmpty()) {
+                return null;
+            }
+            boolean dot = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '.' && !dot && i > 0 && i < value.length() - 1) {
+                    dot = true;
+                } else if (c < '0' || c > '9') {
+                    return message;
+                }
+            }
+            double number = Double.parseDouble(value);
+            return (number > min && number < max) ? null : message;
+        };
+    }
+
+    /** A whole number from min to max inclusive (empty passes). */
+    public static Rule wholeNumber(int min, int max, String message) {
+        return (value, form) -> {
+            if (value.isEmpty() || value.length() > 9) {
+                return value.isEmpty() ? null : message;
+            }
+            int number = parseDigits(value, 0, value.length());
+            return (number >= min && number <= max) ? null : message;
+        };
+    }
+
+    /** A complete masked value: no placeholder spaces left (empty passes). */
+    public static Rule complete(String message) {
+        return (value, form) -> value.isEmpty() || value.indexOf(' ') < 0 ? null : message;
+    }
+
+    /**
+     * A real yyyy-MM-dd date (empty passes).
+     * @param notBeforeToday True to also reject dates in the past.
+     * @param notAfterToday  True to also reject dates in the future.
+     */
+    public static Rule isoDate(boolean notBeforeToday, boolean notAfterToday, String message) {
+        return (value, form) -> {
+            if (value.isEmpty()) {
+                return null;
+            }
+            LocalDate date = parseIsoDate(value);
+            if (date == null) {
+                return message;
+            }
+            LocalDate today = LocalDate.now();
+            if ((notBeforeToday && date.isBefore(today)) || (notAfterToday && date.isAfter(today))) {
+                return message;
+            }
+            return null;
+        };
+    }
+
+    /** Equal to another field's value. */
+    public static Rule sameAs(String otherField, String message) {
+        return (value, form) -> value.equals(form.valueOf(otherField)) ? null : message;
+    }
+
+    /**
+     * Parses "yyyy-MM-dd" by hand, without a formatter or exceptions for the common bad input.
+     * @return The date, or null if the text is not a valid one.
+     */
+    static LocalDate parseIsoDate(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return null;
+        }
+        int year = parseDigits(text, 0, 4);
+        int month = parseDigits(text, 5, 7);
+        int day = parseDigits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null; // E.g. February 30th
+        }
+    }
+
+    private static int parseDigits(String text, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+}
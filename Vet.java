@@ -0,0 +1,102 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A vet in the partner network, as listed in the {@link VetDirectory}.
+ */
+public class Vet {
+
+    private final long id;
+    private final String name;
+    private final String specialty;
+    private final String clinic;
+    private final String area;
+    private final String address;
+    private final String phone;
+    private final String email;
+
+    /**
+     * @param id The directory key, or 0 for a vet that has not been saved yet.
+     */
+    public Vet(long id, String name, String specialty, String clinic, String area, String address,
+               String phone, String email) {
+        this.id = id;
+        this.name = name;
+        this.specialty = specialty;
+        this.clinic = clinic;
+        this.area = area;
+        this.address = address;
+        this.phone = phone;
+        this.email = email;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * E.g. "General Practice", "Surgery" or "Dermatology".
+     */
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public String getClinic() {
+        return clinic;
+    }
+
+    /**
+     * The city or district the clinic is in, e.g. "Quezon City".
+     */
+    public String getArea() {
+        return area;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    Vet withId(long newId) {
+        return new Vet(newId, name, specialty, clinic, area, address, phone, email);
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(192);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(id);
+        out.writeUTF(name);
+        out.writeUTF(specialty);
+        out.writeUTF(clinic);
+        out.writeUTF(area);
+        out.writeUTF(address);
+        out.writeUTF(phone);
+        out.writeUTF(email);
+        return bytes.toByteArray();
+    }
+
+    static Vet fromBytes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        return new Vet(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+            in.readUTF(), in.readUTF());
+    }
+
+    @Override
+    public String toString() {
+        return name; // Shown as-is in the vet selector
+    }
+}
@@ -4,10 +4,31 @@ import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
 import javax.swing.text.MaskFormatter;
 import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
 import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class VetAppointment extends JPanel {
 
@@ -19,6 +40,7 @@ public class VetAppointment extends JPanel {
     private static final Color INPUT_BG_COLOR = Color.WHITE;
     private static final Color BLUE_ACCENT = new Color(59, 130, 246); // bg-blue-600
     private static final Color GRAY_BUTTON_BG = new Color(209, 213, 219); // bg-gray-300
+    private static final Color ERROR_COLOR = new Color(220, 38, 38); // red-600
 
     private static final Font FONT_HEADER = new Font("Inter", Font.BOLD, 36);
     private static final Font FONT_TITLE = new Font("Inter", Font.BOLD, 20);
@@ -29,10 +51,44 @@ public class VetAppointment extends JPanel {
     // Form components to be accessed for clearing
     private JTextField petNameField, petTypeField, ageBreedField;
     private JTextField petIdField, ownerNameField, petWeightField, emergencyContactField;
-    private JComboBox<String> vetSelector, genderComboBox;
+    private JComboBox<String> vetSelector, genderComboBox, repeatComboBox;
     private JFormattedTextField dateField, contactNumberField, lastVaccinationField;
     private JSpinner timeSpinner;
     private JTextArea medicalHistoryArea, allergiesArea;
+    private JLabel holdStatusLabel;
+    private AppointmentScheduler.Hold hold; // Keeps the selected slot while the form is filled in
+    private final Timer holdTimer = new Timer(HOLD_CHECK_MILLIS, _ -> checkHold()); // Runs while holding
+    private long lastActivityMillis; // Last key or click in the form
+    private final AWTEventListener activityListener = event -> {
+        if ((event.getID() == KeyEvent.KEY_PRESSED || event.getID() == MouseEvent.MOUSE_PRESSED)
+                && event.getSource() instanceof Component source && SwingUtilities.isDescendingFrom(source, this)) {
+            lastActivityMillis = System.currentTimeMillis();
+        }
+    };
+    private JPanel vetCardsPanel;
+    private JButton viewMoreVetsButton;
+    private JComboBox<String> specialtyFilter, areaFilter;
+    private int vetCardsShown = 0;
+    private boolean filteringVets = false; // Set while the selector's list is being replaced
+
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("EEE, MMM d 'at' h:mm a");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+    private static final int SUGGESTED_SLOTS = 3;
+    private static final int HOLD_CHECK_MILLIS = 15_000; // The hold is renewed if the form was used since
+    private static final String[] REPEAT_LABELS = {"Does not repeat", "Every month", "Every 6 months", "Every year"};
+    private static final Period[] REPEAT_INTERVALS = {null, Period.ofMonths(1), Period.ofMonths(6), Period.ofYears(1)};
+    private static final Period VACCINATION_INTERVAL = Period.ofYears(1);
+    private static final int HISTORY_YEARS = 3; // Shown by "Medical History"; allergies are always shown
+    private static final int VET_SUGGESTIONS = 20; // Names listed in the selector's dropdown
+    private static final int VET_PAGE_SIZE = 10;   // Cards added to the side panel at a time
+    private static final int VET_PREFETCH_PIXELS = 200;
+    private static final String ALL_SPECIALTIES = "All specialties";
+    private static final String ALL_AREAS = "All areas";
+
+    private final VetDirectory vetDirectory = openVetDirectory(); // Null if it could not be opened
+    private final Validator validator = createValidator();
+    private final Map<String, String> fieldNames = new LinkedHashMap<>();     // Field -> label shown in messages
+    private final Map<String, JComponent> fieldOutlines = new LinkedHashMap<>(); // Field -> component carrying its border
 
     public VetAppointment() {
         setBackground(BG_COLOR);
@@ -44,6 +100,44 @@ public class VetAppointment extends JPanel {
 
         // Main content area with two columns
         add(createMainContentPanel(), BorderLayout.CENTER);
+
+        bindValidation();
+        vetSelector.addActionListener(_ -> {
+            if (!filteringVets) {
+                updateHold();
+            }
+        });
+        timeSpinner.addChangeListener(_ -> updateHold());
+        dateField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateHold();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateHold();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not affect the date
+            }
+        });
+        selectVet(null);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Toolkit.getDefaultToolkit().addAWTEventListener(activityListener, AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK);
+    }
+
+    @Override
+    public void removeNotify() {
+        Toolkit.getDefaultToolkit().removeAWTEventListener(activityListener);
+        releaseHold();
+        super.removeNotify();
     }
 
     private JPanel createHeaderPanel() {
@@ -277,9 +371,7 @@ public class VetAppointment extends JPanel {
         gbc.gridy = 0;
         gbc.gridwidth = 1;
         gbc.weightx = 0.5;
-        String[] vets = {"Dr. Marlon Paul Agustino", "Dr. Anna Kendrick", "Dr. Peter Jones"};
-        vetSelector = new JComboBox<>(vets);
-        styleComboBox(vetSelector);
+        vetSelector = createVetSelector();
         addField(fields, gbc, "Select Vet", vetSelector);
 
         gbc.gridx = 1;
@@ -303,6 +395,23 @@ public class VetAppointment extends JPanel {
         gbc.weightx = 0.5;
         contactNumberField = createContactField();
         addField(fields, gbc, "Contact Number", contactNumberField);
+
+        // Repeat (third row)
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 1;
+        gbc.weightx = 0.5;
+        repeatComboBox = new JComboBox<>(REPEAT_LABELS);
+        styleComboBox(repeatComboBox);
+        addField(fields, gbc, "Repeat", repeatComboBox);
+
+        // Whether the chosen slot is held for this form (last row, full width)
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        gbc.gridwidth = 2;
+        holdStatusLabel = new JLabel(" ");
+        holdStatusLabel.setFont(FONT_LABEL);
+        fields.add(holdStatusLabel, gbc);
         
         return fields;
     }
@@ -316,25 +425,29 @@ public class VetAppointment extends JPanel {
         JButton bookButton = new JButton("Book Appointment");
         styleButton(bookButton, BLUE_ACCENT, Color.WHITE);
         bookButton.addActionListener(_ -> {
-            // Simulate booking success
-            JOptionPane.showMessageDialog(this, 
-                "Your appointment has been successfully scheduled.",
-                "Appointment Booked!",
-                JOptionPane.INFORMATION_MESSAGE);
+            if (!validator.validateAll()) {
+                showValidationErrors();
+                return;
+            }
+            bookAppointment(bookButton);
         });
         
         JButton clearButton = new JButton("Clear Form");
         styleButton(clearButton, GRAY_BUTTON_BG, TEXT_COLOR);
         clearButton.addActionListener(_ -> clearForm());
 
+        JButton historyButton = new JButton("Medical History");
+        styleButton(historyButton, GRAY_BUTTON_BG, TEXT_COLOR);
+        historyButton.addActionListener(_ -> showMedicalHistory());
+
         buttonPanel.add(bookButton);
         buttonPanel.add(clearButton);
+        buttonPanel.add(historyButton);
         return buttonPanel;
     }
 
     private JPanel createVetInfoPanel() {
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        JPanel panel = new JPanel(new BorderLayout(0, 16));
         panel.setBackground(SECTION_BG_COLOR);
         panel.setAlignmentX(Component.LEFT_ALIGNMENT); // Force left alignment
         panel.setBorder(new CompoundBorder(
@@ -342,25 +455,49 @@ public class VetAppointment extends JPanel {
             new EmptyBorder(16, 16, 16, 16) // Reduced padding
         ));
 
-        panel.add(createVetCard(
-            "Dr. Marlon Paul Agustino", "0912-345-6789", "Dr.MpA@vetelinnic.com",
-            "Happy Paws Veterinary Center", "Brgy. San Isidro, Quezon City"
-        ));
-        panel.add(Box.createRigidArea(new Dimension(0, 16))); // Reduced spacing
-        
-        panel.add(createPlaceholderCard());
-        panel.add(Box.createRigidArea(new Dimension(0, 16))); // Reduced spacing
+        // Narrow the list by specialty and area
+        JPanel filters = new JPanel(new GridLayout(1, 2, 8, 0));
+        filters.setOpaque(false);
+        specialtyFilter = createFacetFilter(ALL_SPECIALTIES, VetDirectory.Facet.SPECIALTY);
+        areaFilter = createFacetFilter(ALL_AREAS, VetDirectory.Facet.AREA);
+        filters.add(specialtyFilter);
+        filters.add(areaFilter);
+        panel.add(filters, BorderLayout.NORTH);
 
-        JButton viewMore = new JButton("View More Vets  ▼");
-        styleButton(viewMore, new Color(229, 231, 235), TEXT_COLOR);
-        viewMore.setAlignmentX(Component.LEFT_ALIGNMENT); // Force left alignment
-        panel.add(viewMore);
-        
-        panel.add(Box.createVerticalGlue());
+        // Cards are built a page at a time as the list scrolls, never all up front
+        vetCardsPanel = new JPanel();
+        vetCardsPanel.setLayout(new BoxLayout(vetCardsPanel, BoxLayout.Y_AXIS));
+        vetCardsPanel.setBackground(SECTION_BG_COLOR);
+        JPanel top = new JPanel(new BorderLayout()); // Keeps the cards at the top when few
+        top.setBackground(SECTION_BG_COLOR);
+        top.add(vetCardsPanel, BorderLayout.NORTH);
+        JScrollPane scrollPane = new JScrollPane(top);
+        scrollPane.setBorder(null);
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        configureScrollPaneForSmoothScrolling(scrollPane);
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(_ -> {
+            if (scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum() - VET_PREFETCH_PIXELS) {
+                showMoreVets();
+            }
+        });
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        viewMoreVetsButton = new JButton("View More Vets  ▼");
+        styleButton(viewMoreVetsButton, new Color(229, 231, 235), TEXT_COLOR);
+        viewMoreVetsButton.addActionListener(_ -> showMoreVets());
+        panel.add(viewMoreVetsButton, BorderLayout.SOUTH);
+
+        if (vetDirectory == null) {
+            vetCardsPanel.add(createPlaceholderCard());
+            viewMoreVetsButton.setEnabled(false);
+        } else {
+            showMoreVets();
+        }
         return panel;
     }
 
-    private JPanel createVetCard(String name, String phone, String email, String clinic, String address) {
+    private JPanel createVetCard(Vet vet) {
         JPanel card = new JPanel();
         card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
         card.setBackground(INPUT_BG_COLOR);
@@ -368,26 +505,200 @@ public class VetAppointment extends JPanel {
             new LineBorder(BORDER_COLOR, 1, true), new EmptyBorder(16, 16, 16, 16)
         ));
         card.setAlignmentX(Component.CENTER_ALIGNMENT);
-        card.setMaximumSize(new Dimension(Integer.MAX_VALUE, card.getPreferredSize().height));
 
-        card.add(createCardLabel(name, FONT_TITLE));
+        card.add(createCardLabel(vet.getName(), FONT_TITLE));
+        card.add(createCardLabel(vet.getSpecialty(), FONT_LABEL));
         card.add(Box.createRigidArea(new Dimension(0, 8)));
-        card.add(createCardLabel("Contact: " + phone, FONT_LABEL));
-        card.add(createCardLabel("Email: " + email, FONT_LABEL));
+        card.add(createCardLabel("Contact: " + vet.getPhone(), FONT_LABEL));
+        card.add(createCardLabel("Email: " + vet.getEmail(), FONT_LABEL));
         card.add(Box.createRigidArea(new Dimension(0, 12)));
-        card.add(createCardLabel(clinic, new Font("Inter", Font.BOLD, 14)));
-        card.add(createCardLabel(address, FONT_LABEL));
+        card.add(createCardLabel(vet.getClinic(), new Font("Inter", Font.BOLD, 14)));
+        card.add(createCardLabel(vet.getAddress(), FONT_LABEL));
+        card.setMaximumSize(new Dimension(Integer.MAX_VALUE, card.getPreferredSize().height));
+
+        // Clicking a card books with that vet
+        card.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        card.setToolTipText("Book with " + vet.getName());
+        card.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                selectVet(vet.getName());
+            }
+        });
         return card;
     }
 
+    // --- Vet directory ---
+
+    private static VetDirectory openVetDirectory() {
+        try {
+            return VetDirectory.getDefault();
+        } catch (IOException e) {
+            System.err.println("Error opening vet directory: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return True if the name is a vet in the directory, or if the directory is unavailable
+     *         and the name is not empty.
+     */
+    private static boolean isKnownVet(String name) {
+        try {
+            return VetDirectory.getDefault().findByName(name) != null;
+        } catch (IOException e) {
+            return !name.isEmpty();
+        }
+    }
+
+    /**
+     * Adds the next page of vet cards matching the filters to the side panel.
+     */
+    private void showMoreVets() {
+        if (vetDirectory == null) {
+            return;
+        }
+        Map<VetDirectory.Facet, String> filter = selectedFacets();
+        int total = vetDirectory.count(filter);
+        if (vetCardsShown >= total) {
+            return;
+        }
+        for (Vet vet : vetDirectory.find(filter, vetCardsShown, VET_PAGE_SIZE)) {
+            vetCardsPanel.add(createVetCard(vet));
+            vetCardsPanel.add(Box.createRigidArea(new Dimension(0, 16)));
+            vetCardsShown++;
+        }
+        viewMoreVetsButton.setEnabled(vetCardsShown < total);
+        viewMoreVetsButton.setText(vetCardsShown < total ? "View More Vets  ▼" : "No More Vets");
+        vetCardsPanel.revalidate();
+        vetCardsPanel.repaint();
+    }
+
+    private void resetVetCards() {
+        vetCardsPanel.removeAll();
+        vetCardsShown = 0;
+        showMoreVets();
+    }
+
+    private JComboBox<String> createFacetFilter(String any, VetDirectory.Facet facet) {
+        JComboBox<String> filter = new JComboBox<>();
+        filter.addItem(any);
+        if (vetDirectory != null) {
+            for (String value : vetDirectory.getValues(facet)) {
+                filter.addItem(value);
+            }
+        }
+        styleComboBox(filter);
+        filter.addActionListener(_ -> resetVetCards());
+        return filter;
+    }
+
+    private Map<VetDirectory.Facet, String> selectedFacets() {
+        Map<VetDirectory.Facet, String> filter = new EnumMap<>(VetDirectory.Facet.class);
+        if (specialtyFilter.getSelectedIndex() > 0) {
+            filter.put(VetDirectory.Facet.SPECIALTY, (String) specialtyFilter.getSelectedItem());
+        }
+        if (areaFilter.getSelectedIndex() > 0) {
+            filter.put(VetDirectory.Facet.AREA, (String) areaFilter.getSelectedItem());
+        }
+        return filter;
+    }
+
+    /**
+     * An editable selector whose list narrows to the matching vets as the name, clinic,
+     * specialty or area is typed. Only {@value #VET_SUGGESTIONS} names are listed at a time.
+     */
+    private JComboBox<String> createVetSelector() {
+        JComboBox<String> selector = new JComboBox<>(new DefaultComboBoxModel<>());
+        selector.setEditable(true);
+        styleComboBox(selector);
+        selector.setBorder(new CompoundBorder(new LineBorder(BORDER_COLOR, 1), new EmptyBorder(7, 4, 7, 4)));
+        JTextComponent editor = (JTextComponent) selector.getEditor().getEditorComponent();
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterVetsLater();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterVetsLater();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not affect the text
+            }
+        });
+        return selector;
+    }
+
+    private void filterVetsLater() {
+        if (!filteringVets) {
+            SwingUtilities.invokeLater(this::filterVets); // Documents cannot be changed from their own listeners
+        }
+    }
+
+    /**
+     * Replaces the selector's list with the vets matching what has been typed, leaving the
+     * typed text and caret alone.
+     */
+    private void filterVets() {
+        if (vetDirectory == null) {
+            return;
+        }
+        JTextComponent editor = (JTextComponent) vetSelector.getEditor().getEditorComponent();
+        String text = editor.getText();
+        int caret = editor.getCaretPosition();
+        List<Vet> matches = vetDirectory.search(text, VET_SUGGESTIONS);
+        if (matches.size() == 1 && matches.get(0).getName().equalsIgnoreCase(text.trim())) {
+            matches = vetDirectory.search("", VET_SUGGESTIONS); // Already chosen; still offer the others
+        }
+        DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) vetSelector.getModel();
+        filteringVets = true;
+        try {
+            model.removeAllElements();
+            for (Vet vet : matches) {
+                model.addElement(vet.getName());
+            }
+            model.setSelectedItem(text); // The typed text, which need not be in the list
+            editor.setText(text);
+            editor.setCaretPosition(Math.min(caret, text.length()));
+        } finally {
+            filteringVets = false;
+        }
+        if (editor.isFocusOwner() && !matches.isEmpty()) {
+            vetSelector.hidePopup(); // Reopen so the popup fits the new list
+            vetSelector.showPopup();
+        }
+        updateHold();
+    }
+
+    /**
+     * Puts a vet in the selector; null picks the first vet in the directory.
+     */
+    private void selectVet(String name) {
+        if (name == null && vetDirectory != null) {
+            List<Vet> first = vetDirectory.search("", 1);
+            name = first.isEmpty() ? "" : first.get(0).getName();
+        }
+        vetSelector.setSelectedItem(name);
+        filterVets();
+    }
+
+    private String selectedVet() {
+        return ((JTextComponent) vetSelector.getEditor().getEditorComponent()).getText().trim();
+    }
+
     private void clearForm() {
         // Clear existing fields
         petNameField.setText("");
         petTypeField.setText("");
         ageBreedField.setText("");
-        vetSelector.setSelectedIndex(0);
+        selectVet(null);
         dateField.setValue(null); // Clears the formatted text field
         timeSpinner.setValue(new Date()); // Reset time to current
+        repeatComboBox.setSelectedIndex(0);
         contactNumberField.setValue(null);
         
         // Clear new pet detail fields
@@ -399,6 +710,378 @@ public class VetAppointment extends JPanel {
         lastVaccinationField.setValue(null);
         medicalHistoryArea.setText("");
         allergiesArea.setText("");
+        validator.reset();
+        releaseHold();
+    }
+
+    // --- Booking ---
+
+    /**
+     * Books the selected vet at the entered date and time. If the vet is already booked
+     * then, offers the next free slots instead.
+     */
+    private void bookAppointment(JButton bookButton) {
+        AppointmentScheduler scheduler;
+        try {
+            scheduler = AppointmentScheduler.getDefault();
+        } catch (IOException e) {
+            System.err.println("Error opening appointment log: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "Appointments are unavailable right now.", "Booking Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String vet = selectedVet();
+        LocalDateTime start = selectedStart();
+        if (start.isBefore(LocalDateTime.now())) {
+            JOptionPane.showMessageDialog(this, "Please choose a time later than now.", "Check Appointment Details", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        bookButton.setEnabled(false);
+        CompletableFuture<Appointment> booking;
+        if (hold != null && hold.getVet().equals(vet) && hold.getStart().equals(start)) {
+            booking = scheduler.confirm(hold, collectDetails());
+            hold = null;
+        } else {
+            booking = scheduler.book(vet, start, AppointmentScheduler.DEFAULT_DURATION, collectDetails());
+        }
+        releaseHold(); // Clears the status line
+        booking.whenComplete((appointment, error) ->
+            SwingUtilities.invokeLater(() -> {
+                bookButton.setEnabled(true);
+                Throwable cause = (error == null) ? null : Authenticator.unwrap(error);
+                if (appointment != null) {
+                    CatalogSearch.getInstance().indexAppointment(appointment);
+                    addCarePlans(appointment);
+                    recordMedicalHistory(appointment);
+                    JOptionPane.showMessageDialog(this,
+                        "Your appointment with " + vet + " is scheduled for " + SLOT_FORMAT.format(start) + ".",
+                        "Appointment Booked!",
+                        JOptionPane.INFORMATION_MESSAGE);
+                } else if (cause instanceof AppointmentScheduler.SlotTakenException) {
+                    offerFreeSlots(scheduler, vet, start, bookButton);
+                } else if (cause instanceof IllegalArgumentException) {
+                    JOptionPane.showMessageDialog(this, "The clinic is open from " + AppointmentScheduler.OPENING
+                        + " to " + AppointmentScheduler.CLOSING + ". Please choose a time within those hours.",
+                        "Check Appointment Details", JOptionPane.WARNING_MESSAGE);
+                } else {
+                    System.err.println("Error booking appointment: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(this, "Could not book the appointment. Please try again.", "Booking Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }));
+    }
+
+    private void offerFreeSlots(AppointmentScheduler scheduler, String vet, LocalDateTime requested, JButton bookButton) {
+        List<LocalDateTime> slots = scheduler.findFreeSlots(vet, requested, AppointmentScheduler.DEFAULT_DURATION, SUGGESTED_SLOTS);
+        if (slots.isEmpty()) {
+            JOptionPane.showMessageDialog(this, vet + " has no free time in the coming weeks.", "Fully Booked", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        Object[] options = new Object[slots.size() + 1];
+        for (int i = 0; i < slots.size(); i++) {
+            options[i] = SLOT_FORMAT.format(slots.get(i));
+        }
+        options[slots.size()] = "Cancel";
+        int choice = JOptionPane.showOptionDialog(this,
+            vet + " is already booked at that time. The next free times are:",
+            "Time Not Available", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice >= 0 && choice < slots.size()) {
+            LocalDateTime slot = slots.get(choice);
+            dateField.setText(slot.toLocalDate().toString());
+            timeSpinner.setValue(Date.from(slot.atZone(ZoneId.systemDefault()).toInstant()));
+            bookAppointment(bookButton);
+        }
+    }
+
+    /**
+     * Turns a booking into recurring care: a follow-up visit if "Repeat" was chosen, and a
+     * yearly booster counted from the last vaccination. A booster that falls due by this
+     * visit is taken to be given at it.
+     */
+    private void addCarePlans(Appointment appointment) {
+        CareReminders reminders;
+        try {
+            reminders = CareReminders.getDefault();
+        } catch (IOException e) {
+            System.err.println("Error opening care plans: " + e.getMessage());
+            return;
+        }
+        LocalDate visit = appointment.getStart().toLocalDate();
+        Period repeat = REPEAT_INTERVALS[repeatComboBox.getSelectedIndex()];
+        if (repeat != null) {
+            reminders.add(newCarePlan("Follow-up visit", appointment, repeat, visit.plus(repeat)));
+        }
+        LocalDate lastVaccination = Validator.parseIsoDate(lastVaccinationField.getText().trim());
+        if (lastVaccination != null) {
+            LocalDate due = lastVaccination.plus(VACCINATION_INTERVAL);
+            reminders.add(newCarePlan("Vaccination booster", appointment, VACCINATION_INTERVAL,
+                due.isAfter(visit) ? due : visit.plus(VACCINATION_INTERVAL)));
+        }
+    }
+
+    // --- Medical history ---
+
+    /**
+     * Adds the booking to the pet's medical timeline: the visit itself, the history notes,
+     * each allergy and the last vaccination. Anything the timeline already holds is skipped,
+     * so booking the same pet again with the same form does not repeat it.
+     */
+    private void recordMedicalHistory(Appointment appointment) {
+        String petKey = MedicalHistory.petKey(appointment.getDetail("petId"), appointment.getDetail("ownerName"),
+            appointment.getDetail("petName"));
+        CompletableFuture.runAsync(() -> {
+            MedicalHistory history = MedicalHistory.getDefault();
+            LocalDateTime now = LocalDateTime.now();
+            String vet = appointment.getVet();
+            try {
+                history.append(petKey, new MedicalEvent(MedicalEvent.Type.VISIT, appointment.getStart(), vet,
+                    "Booked appointment", ""));
+
+                String notes = appointment.getDetail("medicalHistory");
+                if (!notes.isEmpty()) {
+                    history.appendIfAbsent(petKey, new MedicalEvent(MedicalEvent.Type.NOTE, now, "", "Medical history", notes));
+                }
+
+                for (String allergy : appointment.getDetail("allergies").split("[,;\\n]")) {
+                    String name = allergy.trim();
+                    if (!name.isEmpty()) {
+                        history.appendIfAbsent(petKey, new MedicalEvent(MedicalEvent.Type.ALLERGY, now, "", name, ""));
+                    }
+                }
+
+                LocalDate vaccinated = Validator.parseIsoDate(appointment.getDetail("lastVaccination"));
+                if (vaccinated != null) {
+                    history.appendIfAbsent(petKey, new MedicalEvent(MedicalEvent.Type.VACCINATION,
+                        vaccinated.atStartOfDay(), "", "Vaccination", ""));
+                }
+            } catch (IOException e) {
+                System.err.println("Error saving medical history: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Shows the last {@value #HISTORY_YEARS} years of the entered pet's medical timeline,
+     * with its allergies whenever they were recorded.
+     */
+    private void showMedicalHistory() {
+        String petId = petIdField.getText().trim();
+        String ownerName = ownerNameField.getText().trim();
+        String petName = petNameField.getText().trim();
+        if (petId.isEmpty() && (ownerName.isEmpty() || petName.isEmpty())) {
+            JOptionPane.showMessageDialog(this, "Enter the Pet ID, or the owner's and pet's names, to see a medical history.",
+                "Medical History", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        String petKey = MedicalHistory.petKey(petId, ownerName, petName);
+        LocalDateTime now = LocalDateTime.now();
+        List<MedicalEvent> recent;
+        List<MedicalEvent> allergies;
+        try {
+            MedicalHistory history = MedicalHistory.getDefault();
+            Set<MedicalEvent.Type> others = EnumSet.complementOf(EnumSet.of(MedicalEvent.Type.ALLERGY));
+            recent = history.find(petKey, now.minusYears(HISTORY_YEARS), LocalDateTime.MAX, others);
+            allergies = history.find(petKey, LocalDateTime.MIN, LocalDateTime.MAX, EnumSet.of(MedicalEvent.Type.ALLERGY));
+        } catch (IOException e) {
+            System.err.println("Error reading medical history: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "The medical history is unavailable right now.", "Medical History", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (recent.isEmpty() && allergies.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No medical history recorded for this pet yet.", "Medical History", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        if (!allergies.isEmpty()) {
+            text.append("Known allergies:\n");
+            for (MedicalEvent allergy : allergies) {
+                text.append("• ").append(allergy.getSummary()).append("\n");
+            }
+            text.append("\n");
+        }
+        text.append("Last ").append(HISTORY_YEARS).append(" years:\n");
+        for (int i = recent.size() - 1; i >= 0; i--) { // Newest first
+            MedicalEvent event = recent.get(i);
+            text.append("• ").append(event).append("\n");
+            if (!event.getNotes().isEmpty()) {
+                text.append("    ").append(event.getNotes().replace("\n", "\n    ")).append("\n");
+            }
+        }
+        JTextArea area = new JTextArea(text.toString(), 16, 48);
+        area.setEditable(false);
+        area.setLineWrap(true);
+        area.setWrapStyleWord(true);
+        area.setCaretPosition(0);
+        JOptionPane.showMessageDialog(this, new JScrollPane(area), "Medical History", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    private static CarePlan newCarePlan(String kind, Appointment appointment, Period interval, LocalDate due) {
+        return new CarePlan(0, kind, appointment.getDetail("petName"), appointment.getDetail("ownerName"),
+            appointment.getDetail("contactNumber"), appointment.getVet(), interval, appointment.getStart().toLocalTime(), due);
+    }
+
+    /**
+     * Holds the selected vet, date and time for this form, so another front desk cannot
+     * book it while the details are typed in. Runs whenever the selection changes; a hold
+     * on the previous selection is released, and an abandoned form's hold simply expires.
+     */
+    private void updateHold() {
+        String vet = selectedVet();
+        LocalDate date = Validator.parseIsoDate(dateField.getText().trim());
+        LocalDateTime start = (date == null || !isKnownVet(vet)) ? null : date.atTime(selectedTime());
+        if (hold != null && !hold.isExpired() && hold.getVet().equals(vet) && hold.getStart().equals(start)) {
+            return; // Still holding this slot
+        }
+        releaseHold();
+        if (start == null || start.isBefore(LocalDateTime.now())) {
+            return;
+        }
+        try {
+            hold = AppointmentScheduler.getDefault().hold(vet, start, AppointmentScheduler.DEFAULT_DURATION);
+            showHeldUntil();
+            holdTimer.start();
+        } catch (AppointmentScheduler.SlotTakenException e) {
+            showHoldStatus(vet + (e.isHeld() ? " is being booked at another desk" : " is booked")
+                + " until " + TIME_FORMAT.format(e.getConflictEnd()) + ".", ERROR_COLOR);
+        } catch (IllegalArgumentException e) {
+            showHoldStatus("The clinic is open from " + AppointmentScheduler.OPENING + " to "
+                + AppointmentScheduler.CLOSING + ".", ERROR_COLOR);
+        } catch (IOException e) {
+            System.err.println("Error opening appointment log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renews the hold while the form is being filled in, and says so once an unattended
+     * form's hold has lapsed. Using the form again takes the time again if it is still free.
+     */
+    private void checkHold() {
+        if (hold == null) {
+            holdTimer.stop();
+            return;
+        }
+        if (System.currentTimeMillis() - lastActivityMillis < HOLD_CHECK_MILLIS) {
+            try {
+                if (AppointmentScheduler.getDefault().renew(hold)) {
+                    showHeldUntil();
+                } else {
+                    updateHold();
+                }
+            } catch (IOException e) {
+                System.err.println("Error opening appointment log: " + e.getMessage());
+            }
+        } else if (hold.isExpired()) {
+            showHoldStatus("Your hold on this time has expired; it can still be booked if nobody else has.", ERROR_COLOR);
+        }
+    }
+
+    private void showHeldUntil() {
+        LocalTime until = LocalTime.ofInstant(hold.getExpiry(), ZoneId.systemDefault());
+        showHoldStatus("This time is held for you until " + TIME_FORMAT.format(until) + ".", TEXT_COLOR);
+    }
+
+    private void releaseHold() {
+        holdTimer.stop();
+        if (hold != null) {
+            try {
+                AppointmentScheduler.getDefault().release(hold);
+            } catch (IOException e) {
+                System.err.println("Error opening appointment log: " + e.getMessage()); // The hold will expire
+            }
+            hold = null;
+        }
+        holdStatusLabel.setText(" ");
+    }
+
+    private void showHoldStatus(String message, Color color) {
+        holdStatusLabel.setForeground(color);
+        holdStatusLabel.setText(message);
+    }
+
+    private LocalTime selectedTime() {
+        return ((Date) timeSpinner.getValue()).toInstant().atZone(ZoneId.systemDefault())
+            .toLocalTime().withSecond(0).withNano(0);
+    }
+
+    // The date field has passed validation, so it holds a real yyyy-MM-dd date
+    private LocalDateTime selectedStart() {
+        return Validator.parseIsoDate(dateField.getText().trim()).atTime(selectedTime());
+    }
+
+    private Map<String, String> collectDetails() {
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("petId", petIdField.getText().trim());
+        details.put("ownerName", ownerNameField.getText().trim());
+        details.put("petName", petNameField.getText().trim());
+        details.put("petType", petTypeField.getText().trim());
+        details.put("ageBreed", ageBreedField.getText().trim());
+        details.put("gender", String.valueOf(genderComboBox.getSelectedItem()));
+        details.put("petWeight", petWeightField.getText().trim());
+        details.put("lastVaccination", lastVaccinationField.getText().trim());
+        details.put("emergencyContact", emergencyContactField.getText().trim());
+        details.put("contactNumber", contactNumberField.getText().trim());
+        details.put("medicalHistory", medicalHistoryArea.getText().trim());
+        details.put("allergies", allergiesArea.getText().trim());
+        return details;
+    }
+
+    // --- Validation ---
+
+    /**
+     * The appointment form's rules, declared once; see {@link Validator}.
+     */
+    private static Validator createValidator() {
+        return new Validator()
+            .addField("vet",
+                Validator.required("Choose a vet."),
+                (value, form) -> isKnownVet(value) ? null : "Choose a vet from the list.")
+            .addField("ownerName", Validator.required("Enter the owner's name."))
+            .addField("petName", Validator.required("Enter the pet's name."))
+            .addField("petWeight", Validator.decimal(0, 200, "Enter the weight in kg, e.g. 12.5."))
+            .addField("lastVaccination", Validator.isoDate(false, true, "Enter a past date as YYYY-MM-DD."))
+            .addField("emergencyContact", Validator.matches(Validator.PHONE, "Enter a phone number."))
+            .addField("date",
+                Validator.required("Choose a date."),
+                Validator.isoDate(true, false, "Enter today or a later date as YYYY-MM-DD."))
+            .addField("contactNumber",
+                Validator.required("Enter a contact number."),
+                Validator.complete("Enter the full contact number."));
+    }
+
+    private void bindValidation() {
+        bindField("vet", "Vet", (JTextComponent) vetSelector.getEditor().getEditorComponent(), vetSelector);
+        bindField("ownerName", "Owner Name", ownerNameField, ownerNameField);
+        bindField("petName", "Pet Name", petNameField, petNameField);
+        bindField("petWeight", "Pet Weight", petWeightField, petWeightField);
+        bindField("lastVaccination", "Last Vaccination", lastVaccinationField, (JComponent) lastVaccinationField.getParent());
+        bindField("emergencyContact", "Emergency Contact", emergencyContactField, emergencyContactField);
+        bindField("date", "Date", dateField, (JComponent) dateField.getParent());
+        bindField("contactNumber", "Contact Number", contactNumberField, contactNumberField);
+        validator.setListener(this::showFieldError);
+    }
+
+    private void bindField(String field, String name, JTextComponent component, JComponent outline) {
+        validator.bind(field, component);
+        fieldNames.put(field, name);
+        fieldOutlines.put(field, outline);
+    }
+
+    /**
+     * Outlines an invalid field in red and puts the message in its tooltip.
+     */
+    private void showFieldError(String field, String error) {
+        JComponent outline = fieldOutlines.get(field);
+        LineBorder line = new LineBorder(error == null ? BORDER_COLOR : ERROR_COLOR, 1);
+        Border border = outline.getBorder();
+        outline.setBorder(border instanceof CompoundBorder ? new CompoundBorder(line, ((CompoundBorder) border).getInsideBorder()) : line);
+        outline.setToolTipText(error);
+    }
+
+    private void showValidationErrors() {
+        StringBuilder message = new StringBuilder("Please check the following:\n");
+        for (Map.Entry<String, String> error : validator.getVisibleErrors().entrySet()) {
+            message.append("\n").append(fieldNames.get(error.getKey())).append(": ").append(error.getValue());
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Check Appointment Details", JOptionPane.WARNING_MESSAGE);
     }
     
     // --- Helper and Styling Methods ---
@@ -0,0 +1,291 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The partner vet network: who they are, where they practise and what they specialise in.
+ *
+ * The directory is a few hundred small records, so it all lives in memory, indexed by
+ * clinic, specialty and area and by every word of those and of the vet's name. Lists are
+ * paged in name order, so the UI builds only the vets it is about to show. Every change
+ * is appended to a {@link WriteAheadLog} and replayed on startup; the last record for an
+ * id wins.
+ */
+public class VetDirectory {
+
+    public enum Facet {
+        CLINIC, SPECIALTY, AREA
+    }
+
+    private static final Comparator<Vet> BY_NAME = Comparator
+        .comparing((Vet vet) -> vet.getName().toLowerCase(Locale.ROOT))
+        .thenComparingLong(Vet::getId);
+
+    private static VetDirectory defaultDirectory;
+
+    private final WriteAheadLog log;
+    private final Map<Long, Vet> vets = new HashMap<>();
+    private final Map<String, Long> idsByName = new HashMap<>(); // Lower-cased name -> id
+    private final Map<Facet, TreeMap<String, Set<Long>>> idsByFacet = new EnumMap<>(Facet.class);
+    private final TreeMap<String, Set<Long>> idsByWord = new TreeMap<>(); // For prefix search
+    private List<Vet> ordered = null; // Every vet in name order, rebuilt lazily
+    private long nextId = 1;
+
+    public VetDirectory(File logFile) throws IOException {
+        for (Facet facet : Facet.values()) {
+            idsByFacet.put(facet, new TreeMap<>());
+        }
+        WriteAheadLog.replay(logFile, payload -> {
+            try {
+                Vet vet = Vet.fromBytes(payload);
+                index(vet);
+                nextId = Math.max(nextId, vet.getId() + 1);
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable vet record: " + e.getMessage());
+            }
+        });
+        this.log = new WriteAheadLog(logFile);
+    }
+
+    /**
+     * Returns the shared directory in the PawTrack data directory, filled with the sample
+     * vets on a fresh install.
+     */
+    public static synchronized VetDirectory getDefault() throws IOException {
+        if (defaultDirectory == null) {
+            VetDirectory directory = new VetDirectory(AppData.file("vets.wal"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    directory.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing vet directory: " + e.getMessage());
+                }
+            }));
+            if (directory.count() == 0) {
+                seedSampleData(directory);
+            }
+            defaultDirectory = directory;
+        }
+        return defaultDirectory;
+    }
+
+    // --- Writing ---
+
+    /**
+     * Adds a new vet (id 0) or replaces the stored vet with the same id.
+     * @return A future completing with the saved vet, carrying its id, once it is durable.
+     */
+    public synchronized CompletableFuture<Vet> save(Vet vet) {
+        Vet stored = (vet.getId() == 0) ? vet.withId(nextId++) : vet;
+        byte[] payload;
+        try {
+            payload = stored.toBytes();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        index(stored);
+        // Appended under the lock, so edits of one vet replay in the order they were made
+        return log.append(payload).thenApply(size -> stored);
+    }
+
+    public void close() throws IOException {
+        log.close();
+    }
+
+    // --- Queries ---
+
+    public synchronized int count() {
+        return vets.size();
+    }
+
+    public synchronized Vet findById(long id) {
+        return vets.get(id);
+    }
+
+    /**
+     * @return The vet with exactly this name (any case), or null.
+     */
+    public synchronized Vet findByName(String name) {
+        Long id = idsByName.get(key(name));
+        return (id == null) ? null : vets.get(id);
+    }
+
+    /**
+     * Returns up to limit vets in name order, skipping the first offset, that match every
+     * given facet value (case-insensitive). A null facet value matches any vet.
+     */
+    public synchronized List<Vet> find(Map<Facet, String> filter, int offset, int limit) {
+        List<Vet> matches = matching(filter);
+        if (offset >= matches.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(matches.subList(offset, Math.min(matches.size(), offset + limit)));
+    }
+
+    public synchronized int count(Map<Facet, String> filter) {
+        return matching(filter).size();
+    }
+
+    /**
+     * @return The distinct values of a facet, e.g. every area, sorted.
+     */
+    public synchronized List<String> getValues(Facet facet) {
+        List<String> values = new ArrayList<>();
+        for (Set<Long> ids : idsByFacet.get(facet).values()) {
+            values.add(facetOf(vets.get(ids.iterator().next()), facet)); // As first spelled
+        }
+        return values;
+    }
+
+    /**
+     * Finds vets for filter-as-you-type: every word of the query must start a word of the
+     * vet's name, specialty, clinic or area.
+     * @return Up to limit vets in name order; the first vets if the query has no words.
+     */
+    public synchronized List<Vet> search(String query, int limit) {
+        List<String> words = SearchIndex.tokenize(query);
+        if (words.isEmpty()) {
+            return find(Map.of(), 0, limit);
+        }
+        Set<Long> candidates = null;
+        for (String word : words) {
+            Set<Long> hits = new HashSet<>();
+            for (Set<Long> ids : idsByWord.subMap(word, word + Character.MAX_VALUE).values()) {
+                hits.addAll(ids);
+            }
+            if (candidates == null) {
+                candidates = hits;
+            } else {
+                candidates.retainAll(hits);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        List<Vet> found = new ArrayList<>(candidates.size());
+        for (long id : candidates) {
+            found.add(vets.get(id));
+        }
+        found.sort(BY_NAME);
+        return (found.size() > limit) ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    // --- Indexes ---
+
+    // Caller holds the lock (or is the constructor)
+    private List<Vet> matching(Map<Facet, String> filter) {
+        Set<Long> smallest = null;
+        for (Map.Entry<Facet, String> entry : filter.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            Set<Long> ids = idsByFacet.get(entry.getKey()).get(key(entry.getValue()));
+            if (ids == null) {
+                return List.of();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        if (smallest == null) {
+            return ordered(); // No filter
+        }
+        List<Vet> matches = new ArrayList<>();
+        for (long id : smallest) {
+            Vet vet = vets.get(id);
+            if (matchesAll(vet, filter)) {
+                matches.add(vet);
+            }
+        }
+        matches.sort(BY_NAME);
+        return matches;
+    }
+
+    private static boolean matchesAll(Vet vet, Map<Facet, String> filter) {
+        for (Map.Entry<Facet, String> entry : filter.entrySet()) {
+            if (entry.getValue() != null && !facetOf(vet, entry.getKey()).equalsIgnoreCase(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Vet> ordered() {
+        if (ordered == null) {
+            ordered = new ArrayList<>(vets.values());
+            ordered.sort(BY_NAME);
+        }
+        return ordered;
+    }
+
+    private void index(Vet vet) {
+        Vet previous = vets.put(vet.getId(), vet);
+        if (previous != null) {
+            idsByName.remove(key(previous.getName()), previous.getId());
+            for (Facet facet : Facet.values()) {
+                unindex(idsByFacet.get(facet), key(facetOf(previous, facet)), previous.getId());
+            }
+            for (String word : words(previous)) {
+                unindex(idsByWord, word, previous.getId());
+            }
+        }
+        idsByName.put(key(vet.getName()), vet.getId());
+        for (Facet facet : Facet.values()) {
+            idsByFacet.get(facet).computeIfAbsent(key(facetOf(vet, facet)), _ -> new HashSet<>()).add(vet.getId());
+        }
+        for (String word : words(vet)) {
+            idsByWord.computeIfAbsent(word, _ -> new HashSet<>()).add(vet.getId());
+        }
+        ordered = null;
+    }
+
+    private static void unindex(Map<String, Set<Long>> index, String key, long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static List<String> words(Vet vet) {
+        return SearchIndex.tokenize(vet.getName() + " " + vet.getSpecialty() + " " + vet.getClinic() + " " + vet.getArea());
+    }
+
+    private static String facetOf(Vet vet, Facet facet) {
+        return switch (facet) {
+            case CLINIC -> vet.getClinic();
+            case SPECIALTY -> vet.getSpecialty();
+            case AREA -> vet.getArea();
+        };
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fills an empty directory with the sample vets so a fresh install has someone to book.
+     */
+    private static void seedSampleData(VetDirectory directory) {
+        String[][] vetData = {
+            {"Dr. Marlon Paul Agustino", "General Practice", "Happy Paws Veterinary Center", "Quezon City",
+                "Brgy. San Isidro, Quezon City", "0912-345-6789", "Dr.MpA@vetelinnic.com"},
+            {"Dr. Anna Kendrick", "Surgery", "Happy Paws Veterinary Center", "Quezon City",
+                "Brgy. San Isidro, Quezon City", "0917-555-0142", "anna.kendrick@happypaws.ph"},
+            {"Dr. Peter Jones", "Dermatology", "Pet Care Animal Clinic", "Makati City",
+                "Poblacion, Makati City", "0918-555-0178", "peter.jones@petcare.ph"}
+        };
+        for (String[] data : vetData) {
+            directory.save(new Vet(0, data[0], data[1], data[2], data[3], data[4], data[5], data[6]));
+        }
+    }
+}
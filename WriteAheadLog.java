@@ -0,0 +1,262 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log with group commit.
+ *
+ * Callers hand records to {@link #append(byte[])} and get a future that completes once the
+ * record is on disk. A single writer thread drains every record queued so far, writes them
+ * in one go and issues one fsync for the whole batch, so many submissions per second cost
+ * only a few disk flushes. Each record is framed as [int length][int crc32][payload];
+ * replay stops at the first torn or corrupt frame. A length over {@link #MAX_RECORD_BYTES}
+ * reads as torn, so larger records are refused when appended rather than lost on replay.
+ */
+public class WriteAheadLog {
+
+    public static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_BATCH = 512;
+    private static final PendingWrite CLOSE = new PendingWrite(new byte[0], null);
+
+    private final File file;
+    private final FileChannel channel;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile Runnable afterBatch;
+    private volatile boolean closed = false;
+
+    public WriteAheadLog(File file) throws IOException {
+        this.file = file;
+        long validLength = validLength(file);
+        @SuppressWarnings("resource")
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        this.channel = raf.getChannel();
+        if (channel.size() > validLength) {
+            System.err.println("Truncating torn log tail at offset " + validLength + " in " + file);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+
+        writer = new Thread(this::writeLoop, "wal-writer-" + file.getName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a record for writing.
+     * @return A future completing with the log size after the record's batch was fsynced.
+     */
+    public CompletableFuture<Long> append(byte[] payload) {
+        return append(payload, null);
+    }
+
+    /**
+     * Queues a record for writing, with a task run on the writer thread once the record is
+     * on disk, before its future completes and before the after-batch task. Unlike a
+     * callback added to the future, it cannot miss a compaction that follows the batch.
+     * @param committed Run only if the record was written; may be null.
+     */
+    public CompletableFuture<Long> append(byte[] payload, Runnable committed) {
+        PendingWrite write = new PendingWrite(payload, committed);
+        if (payload.length > MAX_RECORD_BYTES) {
+            write.result.completeExceptionally(new IOException("Record of " + payload.length
+                + " bytes is over the " + MAX_RECORD_BYTES + " byte limit: " + file));
+        } else if (closed) {
+            write.result.completeExceptionally(new IOException("Log is closed: " + file));
+        } else {
+            queue.add(write);
+        }
+        return write.result;
+    }
+
+    /**
+     * Reads every intact record from the start of the log.
+     */
+    public static void replay(File file, Consumer<byte[]> consumer) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] payload;
+            while ((payload = readFrame(in)) != null) {
+                consumer.accept(payload);
+            }
+        }
+    }
+
+    /**
+     * Sets a task run on the writer thread after each committed batch, e.g. to trigger compaction.
+     * Appends made by the task are queued for the next batch.
+     */
+    public void setAfterBatch(Runnable task) {
+        this.afterBatch = task;
+    }
+
+    /**
+     * @return The current size of the log in bytes.
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Empties the log. Only call this from the after-batch task, once its contents are stored elsewhere.
+     */
+    public void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    /**
+     * Commits everything still queued and closes the log.
+     */
+    public void close() throws IOException {
+        closed = true;
+        // A sentinel rather than an interrupt: interrupting a FileChannel write closes the channel
+        queue.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (true) {
+            PendingWrite first;
+            try {
+                first = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            boolean closing = (first == CLOSE);
+            if (!closing) {
+                batch.add(first);
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            if (batch.remove(CLOSE)) {
+                closing = true;
+            }
+            if (closing) {
+                // Commit whatever was queued before close, then stop
+                queue.drainTo(batch);
+                batch.remove(CLOSE);
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+                return;
+            }
+            commit(batch);
+            batch.clear();
+
+            Runnable task = afterBatch;
+            if (task != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Log maintenance failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        try {
+            int total = 0;
+            for (PendingWrite write : batch) {
+                total += 8 + write.payload.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(total);
+            for (PendingWrite write : batch) {
+                CRC32 crc = new CRC32();
+                crc.update(write.payload);
+                buffer.putInt(write.payload.length);
+                buffer.putInt((int) crc.getValue());
+                buffer.put(write.payload);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false); // One fsync for the whole batch
+            long size = channel.size();
+            for (PendingWrite write : batch) {
+                if (write.committed != null) {
+                    try {
+                        write.committed.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Log commit task failed: " + e.getMessage());
+                    }
+                }
+            }
+            for (PendingWrite write : batch) {
+                write.result.complete(size);
+            }
+        } catch (IOException e) {
+            for (PendingWrite write : batch) {
+                write.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static long validLength(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        long length = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] payload;
+            while ((payload = readFrame(in)) != null) {
+                length += 8 + payload.length;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return The next intact payload, or null at end of log or at a torn/corrupt frame.
+     */
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return ((int) crc.getValue() == checksum) ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static final class PendingWrite {
+        final byte[] payload;
+        final Runnable committed;
+        final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        PendingWrite(byte[] payload, Runnable committed) {
+            this.payload = payload;
+            this.committed = committed;
+        }
+    }
+}